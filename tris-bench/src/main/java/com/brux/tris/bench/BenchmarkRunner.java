@@ -0,0 +1,22 @@
+package com.brux.tris.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* Esegue tutti i benchmark (o quelli il cui nome contiene il filtro passato come argomento) con il profiler GC attivo, così che accanto
+*  al throughput venga riportato il tasso di allocazione (gc.alloc.rate e gc.alloc.rate.norm, byte per operazione) */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String filter = (args.length > 0) ? args[0] : "com.brux.tris.bench";
+
+        Options options = new OptionsBuilder()
+                .include(filter)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
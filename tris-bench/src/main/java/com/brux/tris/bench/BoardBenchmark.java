@@ -0,0 +1,52 @@
+package com.brux.tris.bench;
+
+import com.brux.tris.model.Board;
+import com.brux.tris.model.Move;
+import com.brux.tris.model.Symbol;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Operazioni elementari della Board: mossa (con ricalcolo dello stato) e annullamento, generazione delle mosse disponibili */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param({"3x3", "15x15"})
+    public String variant;
+
+    private Board board;
+    private int row;
+    private int col;
+    private Symbol toMove;
+
+    @Setup
+    public void setup() {
+        board = variant.equals("3x3") ? Positions.midgame3x3() : Positions.midgame15x15();
+        toMove = Positions.toMove(board);
+
+        // Prima cella libera in cui effettuare (e annullare) la mossa ad ogni invocazione
+        Move first = board.getAvailableMoves(toMove).get(0);
+        row = first.getRow();
+        col = first.getCol();
+    }
+
+    /* applyMove comprende il ricalcolo dello stato della board (controllo vittoria e pareggio) */
+    @Benchmark
+    public Object applyAndUndo() {
+        board.applyMove(row, col, toMove);
+        Object status = board.getStatus();
+        board.undoMove();
+        return status;
+    }
+
+    @Benchmark
+    public List<Move> availableMoves() {
+        return board.getAvailableMoves(toMove);
+    }
+}
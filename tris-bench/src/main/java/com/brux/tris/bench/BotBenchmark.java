@@ -0,0 +1,87 @@
+package com.brux.tris.bench;
+
+import com.brux.tris.ai.EasyBot;
+import com.brux.tris.ai.ExtremeBot;
+import com.brux.tris.ai.IntermediateBot;
+import com.brux.tris.model.Board;
+import com.brux.tris.model.BotPlayer;
+import com.brux.tris.model.Move;
+import com.brux.tris.model.Symbol;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/* Scelta della mossa da parte dei bot su posizioni rappresentative, più le utility di BotPlayer su cui si appoggiano. Le utility non
+*  dipendono dal bot, dunque usano uno stato con la sola posizione: sono misurate una volta per posizione invece che una per bot */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotBenchmark {
+
+    /* Posizione e bot fittizio per le utility */
+    @State(Scope.Thread)
+    public static class PositionState {
+
+        @Param({"EMPTY_3X3", "MIDGAME_3X3", "MIDGAME_4X4"})
+        public String position;
+
+        Board board;
+        ProbeBot probe;
+
+        @Setup
+        public void setup() {
+            board = board(position);
+            probe = new ProbeBot(Positions.toMove(board));
+        }
+    }
+
+    /* Posizione e bot che deve muovere */
+    @State(Scope.Thread)
+    public static class BotState {
+
+        @Param({"EASY", "INTERMEDIATE", "EXTREME"})
+        public String bot;
+
+        @Param({"EMPTY_3X3", "MIDGAME_3X3", "MIDGAME_4X4"})
+        public String position;
+
+        Board board;
+        BotPlayer player;
+
+        @Setup
+        public void setup() {
+            board = board(position);
+            Symbol toMove = Positions.toMove(board);
+            player = switch (bot) {
+                case "EASY" -> new EasyBot(toMove);
+                case "INTERMEDIATE" -> new IntermediateBot(toMove);
+                default -> new ExtremeBot(toMove);
+            };
+        }
+    }
+
+    @Benchmark
+    public Move makeMove(BotState state) {
+        return state.player.makeMove(state.board);
+    }
+
+    @Benchmark
+    public Move findWinningMove(PositionState state) {
+        return state.probe.winningMove(state.board, state.probe.getSymbol());
+    }
+
+    @Benchmark
+    public Board copyBoard(PositionState state) {
+        return state.probe.copy(state.board);
+    }
+
+    private static Board board(String position) {
+        return switch (position) {
+            case "EMPTY_3X3" -> Positions.empty3x3();
+            case "MIDGAME_3X3" -> Positions.midgame3x3();
+            default -> Positions.midgame4x4();
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.brux.tris.bench;
+
+import com.brux.tris.ai.EasyBot;
+import com.brux.tris.ai.ExtremeBot;
+import com.brux.tris.ai.IntermediateBot;
+import com.brux.tris.model.*;
+import com.brux.tris.service.ScoreKeeper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/* Round completi giocati tramite Game.playTurn, con cambio di chi inizia secondo Game.getNextStarter come nella UI e nei tornei */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"EASY", "INTERMEDIATE", "EXTREME"})
+    public String bots;
+
+    private Game game;
+    private Player starter;
+
+    @Setup
+    public void setup() {
+        Player playerX = create(Symbol.X);
+        Player playerO = create(Symbol.O);
+        game = new Game(playerX, playerO, new ScoreKeeper(), com.brux.tris.model.Mode.SINGLE_PLAYER);
+        starter = playerX;
+    }
+
+    @Benchmark
+    public BoardStatus playRound() {
+        game.startNewRound(starter);
+
+        BoardStatus status;
+        do {
+            status = game.playTurn();
+        } while (status == BoardStatus.ONGOING);
+
+        starter = game.getNextStarter(status);
+        return status;
+    }
+
+    private Player create(Symbol symbol) {
+        return switch (bots) {
+            case "EASY" -> new EasyBot(symbol);
+            case "INTERMEDIATE" -> new IntermediateBot(symbol);
+            default -> new ExtremeBot(symbol);
+        };
+    }
+}
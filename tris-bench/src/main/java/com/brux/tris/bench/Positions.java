@@ -0,0 +1,44 @@
+package com.brux.tris.bench;
+
+import com.brux.tris.model.Board;
+import com.brux.tris.model.Symbol;
+
+/* Posizioni rappresentative su cui misurare board e bot, costruite alternando X e O a partire da X */
+final class Positions {
+
+    private Positions() {
+    }
+
+    /* Board 3x3 vuota */
+    static Board empty3x3() {
+        return new Board();
+    }
+
+    /* Board 3x3 a metà partita, ancora aperta: X al centro e in un angolo, O su un lato e nell'angolo opposto */
+    static Board midgame3x3() {
+        return play(new Board(), 1, 1, 0, 1, 0, 0, 2, 2);
+    }
+
+    /* Board 4x4 (allineamento 4) dopo quattro mosse */
+    static Board midgame4x4() {
+        return play(new Board(4, 4), 1, 1, 2, 2, 1, 2, 2, 1);
+    }
+
+    /* Board 15x15 (allineamento 5) con un gruppo di pietre al centro */
+    static Board midgame15x15() {
+        return play(new Board(15, 5), 7, 7, 7, 8, 8, 8, 6, 6, 8, 6, 9, 9, 6, 8, 5, 9);
+    }
+
+    /* Applica le coordinate (riga, colonna) passate, alternando i simboli */
+    static Board play(Board board, int... cells) {
+        for (int i = 0; i + 1 < cells.length; i += 2) {
+            board.applyMove(cells[i], cells[i + 1], (i / 2 % 2 == 0) ? Symbol.X : Symbol.O);
+        }
+        return board;
+    }
+
+    /* Simbolo del giocatore che deve muovere, supponendo che abbia iniziato X */
+    static Symbol toMove(Board board) {
+        return (board.getMoveCount() % 2 == 0) ? Symbol.X : Symbol.O;
+    }
+}
@@ -0,0 +1,37 @@
+package com.brux.tris.bench;
+
+import com.brux.tris.model.Board;
+import com.brux.tris.model.BotPlayer;
+import com.brux.tris.model.Move;
+import com.brux.tris.model.Symbol;
+
+/* Bot fittizio che rende pubbliche le utility protette di BotPlayer, così da poterle misurare singolarmente. Serve solo a misurare le
+*  utility, ma gioca comunque una mossa valida: vince se può, altrimenti occupa la prima cella libera */
+final class ProbeBot extends BotPlayer {
+
+    ProbeBot(Symbol symbol) {
+        super(symbol);
+    }
+
+    @Override
+    public Move makeMove(Board board) {
+        Move winningMove = findWinningMove(board, getSymbol());
+        if (winningMove != null) {
+            return winningMove;
+        }
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isCellEmpty(cell)) {
+                return Move.ofCell(cell, board.getSize(), getSymbol());
+            }
+        }
+        throw new IllegalStateException("makeMove called on full board");
+    }
+
+    Move winningMove(Board board, Symbol symbol) {
+        return findWinningMove(board, symbol);
+    }
+
+    Board copy(Board board) {
+        return copyBoard(board);
+    }
+}
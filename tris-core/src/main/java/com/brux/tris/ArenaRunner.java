@@ -0,0 +1,36 @@
+package com.brux.tris;
+
+import com.brux.tris.model.BoardStatus;
+import com.brux.tris.model.Symbol;
+import com.brux.tris.sim.ArenaPolicy;
+import com.brux.tris.sim.GameArena;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* Misura il throughput di GameArena facendo giocare tutte le sue partite tra le strategie primitive disponibili. Argomenti opzionali:
+*  numero di partite, thread */
+public class ArenaRunner {
+    public static void main(String[] args) {
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : 4_000_000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Map<String, ArenaPolicy> policies = new LinkedHashMap<>();
+        policies.put("Casuale", ArenaPolicy.random());
+        policies.put("VinciBlocca", ArenaPolicy.winOrBlock());
+        policies.put("Perfetta", ArenaPolicy.perfect());
+
+        GameArena arena = new GameArena(games, 3, 3);
+        for (Map.Entry<String, ArenaPolicy> x : policies.entrySet()) {
+            for (Map.Entry<String, ArenaPolicy> o : policies.entrySet()) {
+                arena.resetAll(Symbol.X);
+                long start = System.nanoTime();
+                arena.playAll(x.getValue(), o.getValue(), threads, 42);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("%-11s vs %-11s X=%d O=%d patte=%d in %.2f s (%.0f partite/s)%n", x.getKey(), o.getKey(),
+                        arena.count(BoardStatus.WIN_X), arena.count(BoardStatus.WIN_O), arena.count(BoardStatus.DRAW), seconds, games / seconds);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.brux.tris;
+
+import com.brux.tris.service.GameLog;
+import com.brux.tris.sim.BlunderAnalyzer;
+import com.brux.tris.sim.BlunderReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/* Analisi degli errori delle partite salvate in un registro (ad esempio da TournamentRunner). Argomenti: percorso del registro, thread
+*  (opzionale), numero di posizioni peggiori da mostrare (opzionale) */
+public class BlunderAnalysisRunner {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Utilizzo: BlunderAnalysisRunner <registro> [thread] [posizioni]");
+            return;
+        }
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int worst = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+        try (GameLog log = GameLog.openReadOnly(Path.of(args[0]))) {
+            BlunderReport report = new BlunderAnalyzer(threads).analyze(log);
+            System.out.println(report);
+            System.out.println("Posizioni con più errori:");
+            for (BlunderReport.PositionStats stats : report.getWorstPositions(worst)) {
+                System.out.println("  " + stats);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.EasyBot;
+import com.brux.tris.model.*;
+import com.brux.tris.service.BatchingSubscriber;
+import com.brux.tris.service.GameEventPublisher;
+import com.brux.tris.service.ScoreKeeper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Verifica manuale del flusso di eventi di Game: gli abbonati devono ricevere gli eventi in ordine, quello lento a blocchi, e la partita
+*  non deve mai aspettarli. Su poche CPU anche l'abbonato rapido può restare indietro rispetto ad una partita tra bot senza pause: gli
+*  eventi persi vengono contati dal publisher e risultano come buchi nella sequenza */
+public class GameEventTest {
+
+    private static final int ROUNDS = 20_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        ScoreKeeper score = new ScoreKeeper();
+        Player botX = new EasyBot(Symbol.X);
+        Player botO = new EasyBot(Symbol.O);
+        Game game = new Game(botX, botO, score, Mode.SINGLE_PLAYER);
+
+        GameEventPublisher events = new GameEventPublisher(Executors.newVirtualThreadPerTaskExecutor(), 4096);
+
+        // Abbonato rapido: consuma i blocchi sul thread di consegna e controlla l'ordine della sequenza
+        AtomicLong fastReceived = new AtomicLong();
+        AtomicLong fastGaps = new AtomicLong();
+        AtomicLong fastUnordered = new AtomicLong();
+        long[] lastSequence = {0};
+        events.subscribe(new BatchingSubscriber<GameEvent>(1024, Runnable::run, batch -> {
+            for (GameEvent e : batch) {
+                if (e.getSequence() <= lastSequence[0]) fastUnordered.incrementAndGet();
+                else if (e.getSequence() != lastSequence[0] + 1) fastGaps.incrementAndGet();
+                lastSequence[0] = e.getSequence();
+            }
+            fastReceived.addAndGet(batch.size());
+        }));
+
+        // Abbonato lento: 1 ms per blocco su un proprio thread
+        ExecutorService slowThread = Executors.newSingleThreadExecutor();
+        AtomicLong slowReceived = new AtomicLong();
+        AtomicLong slowBatches = new AtomicLong();
+        AtomicLong slowLargest = new AtomicLong();
+        AtomicLong lastScore = new AtomicLong();
+        events.subscribe(new BatchingSubscriber<GameEvent>(64, slowThread, batch -> {
+            slowReceived.addAndGet(batch.size());
+            slowBatches.incrementAndGet();
+            slowLargest.accumulateAndGet(batch.size(), Math::max);
+            for (GameEvent e : batch) {
+                if (e instanceof GameEvent.ScoreChanged s) lastScore.set(s.getScore(Symbol.X) + s.getScore(Symbol.O) + s.getDraws());
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        game.setEventPublisher(events);
+        long start = System.nanoTime();
+        Player starter = botX;
+        for (int i = 0; i < ROUNDS; i++) {
+            game.startNewRound(starter);
+            BoardStatus status;
+            do {
+                status = game.playTurn();
+            } while (status == BoardStatus.ONGOING);
+            starter = game.getNextStarter(status);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Chiusura: si attende che entrambi gli abbonati abbiano ricevuto ciò che restava nei buffer
+        events.close();
+        long received;
+        do {
+            received = fastReceived.get() + slowReceived.get();
+            Thread.sleep(200);
+        } while (received != fastReceived.get() + slowReceived.get());
+        slowThread.shutdown();
+
+        System.out.printf("Round: %d in %d ms, eventi pubblicati: %d%n", ROUNDS, elapsed / 1_000_000, events.getPublishedCount());
+        System.out.printf("Abbonato rapido: ricevuti %d, buchi nella sequenza %d, fuori ordine %d%n", fastReceived.get(), fastGaps.get(),
+                fastUnordered.get());
+        System.out.printf("Abbonato lento: ricevuti %d in %d blocchi (max %d), scartati %d, ultimo punteggio visto %d round%n",
+                slowReceived.get(), slowBatches.get(), slowLargest.get(), events.getDroppedCount(), lastScore.get());
+        System.out.println("Punteggio finale: " + score);
+    }
+}
@@ -0,0 +1,95 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.EasyBot;
+import com.brux.tris.ai.ExtremeBot;
+import com.brux.tris.ai.MctsBot;
+import com.brux.tris.model.*;
+import com.brux.tris.service.MetricsRegistry;
+import com.brux.tris.service.ScoreKeeper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/* Verifica manuale della strumentazione dei turni: le stesse partite vengono giocate con strumentazione spenta (per misurarne il costo),
+*  poi con il MetricsRegistry di default e una registrazione di JDK Flight Recorder attivi, di cui si stampano metriche ed eventi */
+public class MetricsTest {
+
+    private static final int ROUNDS = 20_000;
+    private static final int SEARCH_ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+
+        // Riscaldamento e misura senza strumentazione: il costo per turno deve restare quello della sola mossa
+        playRounds(ROUNDS);
+        long start = System.nanoTime();
+        playRounds(ROUNDS);
+        long off = System.nanoTime() - start;
+
+        metrics.setEnabled(true);
+        Path file = Files.createTempFile("tris", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.brux.tris.Turn");
+            recording.enable("com.brux.tris.Search");
+            recording.start();
+
+            start = System.nanoTime();
+            playRounds(ROUNDS);
+            long on = System.nanoTime() - start;
+            playSearchRounds();
+
+            recording.stop();
+            recording.dump(file);
+            System.out.printf("%d round tra EasyBot: %d ms senza strumentazione, %d ms con metriche e JFR%n", ROUNDS, off / 1_000_000,
+                    on / 1_000_000);
+        }
+
+        System.out.println(metrics.dump());
+        MetricsRegistry.Histogram easy = metrics.histogram("tris_turn_seconds", "player", "EASY");
+        System.out.printf("Turni EasyBot: p50 <= %.3f ms, p99 <= %.3f ms%n", easy.getQuantile(0.5) / 1e6, easy.getQuantile(0.99) / 1e6);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        long turns = events.stream().filter(e -> e.getEventType().getName().equals("com.brux.tris.Turn")).count();
+        System.out.printf("Eventi JFR: %d turni, %d ricerche%n", turns, events.size() - turns);
+        events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.brux.tris.Turn") && e.getLong("nodes") > 0)
+                .limit(3)
+                .forEach(System.out::println);
+        Files.delete(file);
+    }
+
+    private static void playRounds(int rounds) {
+        Player botX = new EasyBot(Symbol.X);
+        Player botO = new EasyBot(Symbol.O);
+        Game game = new Game(botX, botO, new ScoreKeeper(), Mode.SINGLE_PLAYER);
+        for (int i = 0; i < rounds; i++) {
+            game.startNewRound(botX);
+            BoardStatus status;
+            do {
+                status = game.playTurn();
+            } while (status == BoardStatus.ONGOING);
+        }
+    }
+
+    /* Partite 4x4 tra bot di ricerca con budget, per eventi con nodi, hit della cache e profondità */
+    private static void playSearchRounds() {
+        Player botX = new ExtremeBot(Symbol.X);
+        Player botO = new MctsBot(Symbol.O, 2_000, 1);
+        Game game = new Game(botX, botO, new ScoreKeeper(), Mode.SINGLE_PLAYER, 4, 4);
+        SearchBudget budget = SearchBudget.ofTime(Duration.ofMillis(20));
+        for (int i = 0; i < SEARCH_ROUNDS; i++) {
+            game.startNewRound((i % 2 == 0) ? botX : botO);
+            BoardStatus status;
+            do {
+                status = game.playTurn(budget);
+            } while (status == BoardStatus.ONGOING);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.OpeningBook;
+import com.brux.tris.ai.OpeningBookBuilder;
+import com.brux.tris.model.Board;
+import com.brux.tris.model.SearchBudget;
+import com.brux.tris.model.Symbol;
+import com.brux.tris.service.GameLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/* Generazione offline di un libro delle aperture. Argomenti: percorso del libro, dimensione e allineamento della griglia, numero massimo
+*  di mosse delle posizioni, millisecondi di ricerca per posizione (0 per ricerche esatte, opzionale), thread (opzionale), registro di
+*  partite da cui ricavare ulteriori voci (opzionale, le voci ricavate dalle ricerche hanno la precedenza) */
+public class OpeningBookRunner {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Utilizzo: OpeningBookRunner <libro> <dimensione> <allineamento> <mosse> [ms per posizione] [thread] [registro]");
+            return;
+        }
+        Path path = Path.of(args[0]);
+        int size = Integer.parseInt(args[1]);
+        int winLength = Integer.parseInt(args[2]);
+        int plies = Integer.parseInt(args[3]);
+        long millis = (args.length > 4) ? Long.parseLong(args[4]) : 0;
+        int threads = (args.length > 5) ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        SearchBudget budget = (millis > 0) ? SearchBudget.ofTime(Duration.ofMillis(millis)) : SearchBudget.unlimited();
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(size, winLength);
+        long start = System.nanoTime();
+        if (args.length > 6) {
+            try (GameLog log = GameLog.openReadOnly(Path.of(args[6]))) {
+                System.out.println("Voci dalle partite registrate: " + builder.addRecorded(log, plies, 1));
+            }
+        }
+        System.out.println("Voci dalle ricerche: " + builder.addSearched(plies, budget, threads));
+        long written = builder.write(path);
+        System.out.printf("Libro %s: %d voci scritte in %d ms%n", path, written, (System.nanoTime() - start) / 1_000_000);
+
+        // Verifica: riapertura del libro e consultazione della posizione iniziale
+        start = System.nanoTime();
+        try (OpeningBook book = OpeningBook.open(path)) {
+            OpeningBook.Entry entry = book.probe(new Board(size, winLength), Symbol.X);
+            System.out.printf("Apertura e consultazione in %.3f ms: posizione iniziale -> %s%n", (System.nanoTime() - start) / 1e6, entry);
+        }
+    }
+}
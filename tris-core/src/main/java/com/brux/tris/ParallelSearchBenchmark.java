@@ -0,0 +1,56 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.AlphaBetaSearch;
+import com.brux.tris.ai.ParallelSearch;
+import com.brux.tris.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Misura la curva di speedup di ParallelSearch rispetto alla ricerca sequenziale, risolvendo la board vuota 4x4 (allineamento 4) con un
+*  numero crescente di thread. Argomenti opzionali: dimensione, allineamento, profondità di suddivisione, ripetizioni */
+public class ParallelSearchBenchmark {
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        int winLength = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int splitDepth = (args.length > 2) ? Integer.parseInt(args[2]) : 2;
+        int repetitions = (args.length > 3) ? Integer.parseInt(args[3]) : 3;
+
+        Board board = new Board(size, winLength);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Board " + size + "x" + size + ", allineamento " + winLength + ", split " + splitDepth + ", core " + cores);
+
+        // Riferimento: ricerca sequenziale con tabella vuota ad ogni ripetizione
+        long sequential = Long.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++) {
+            AlphaBetaSearch search = new AlphaBetaSearch(1 << 20);
+            long start = System.nanoTime();
+            search.findBestMoves(new Board(board), Symbol.X);
+            sequential = Math.min(sequential, System.nanoTime() - start);
+            if (i == 0) {
+                System.out.println("Sequenziale: nodi=" + search.getNodes() + " hit=" + search.getTableHits());
+            }
+        }
+        System.out.printf("%8s %12s %10s%n", "thread", "tempo (ms)", "speedup");
+        System.out.printf("%8s %12.1f %10.2f%n", "seq", sequential / 1e6, 1.0);
+
+        // Curva: potenze di 2 fino al numero di core, più il numero di core stesso
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(cores);
+
+        for (int threads : threadCounts) {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < repetitions; i++) {
+                try (ParallelSearch search = new ParallelSearch(threads, splitDepth, 1 << 20)) {
+                    long start = System.nanoTime();
+                    search.findBestMoves(board, Symbol.X);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+            }
+            System.out.printf("%8d %12.1f %10.2f%n", threads, best / 1e6, (double) sequential / best);
+        }
+    }
+}
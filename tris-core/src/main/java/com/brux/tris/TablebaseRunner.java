@@ -0,0 +1,82 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.IntermediateBot;
+import com.brux.tris.ai.PerfectPlayTable;
+import com.brux.tris.ai.Tablebase;
+import com.brux.tris.ai.TablebaseBot;
+import com.brux.tris.ai.TablebaseSolver;
+import com.brux.tris.model.*;
+import com.brux.tris.service.ScoreKeeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/* Generazione offline di una tablebase. Argomenti: percorso del file, dimensione della griglia (default 4), allineamento (default pari
+*  alla dimensione), thread (opzionale). Al termine la tablebase viene riaperta e verificata: sul tris classico confrontandola con
+*  PerfectPlayTable, su tutte le griglie facendo giocare un TablebaseBot contro IntermediateBot, che non deve mai vincere */
+public class TablebaseRunner {
+
+    private static final int ROUNDS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Utilizzo: TablebaseRunner <tablebase> [dimensione] [allineamento] [thread]");
+            return;
+        }
+        Path path = Path.of(args[0]);
+        int size = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int winLength = (args.length > 2) ? Integer.parseInt(args[2]) : size;
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        TablebaseSolver solver = new TablebaseSolver(size, winLength, threads);
+        solver.solve();
+        System.out.printf("Risolti %d stati in %d ms su %d thread: %d posizioni vinte, %d patte, %d perse per chi muove%n",
+                solver.getStateCount(), solver.getSolveNanos() / 1_000_000, threads, solver.count(PerfectPlayTable.WIN),
+                solver.count(PerfectPlayTable.DRAW), solver.count(PerfectPlayTable.LOSS));
+        solver.write(path);
+        System.out.printf("Tablebase %s: %d byte%n", path, Files.size(path));
+
+        long start = System.nanoTime();
+        try (Tablebase tablebase = Tablebase.open(path)) {
+            Board empty = new Board(size, winLength);
+            int value = tablebase.getValue(empty, Symbol.X);
+            System.out.printf("Apertura e consultazione in %.3f ms: posizione iniziale -> %s%n", (System.nanoTime() - start) / 1e6,
+                    (value == PerfectPlayTable.WIN) ? "vittoria" : (value == PerfectPlayTable.LOSS) ? "sconfitta" : "pareggio");
+
+            if (PerfectPlayTable.supports(empty)) {
+                System.out.println("Posizioni diverse da PerfectPlayTable: " + compareWithTable(tablebase));
+            }
+
+            ScoreKeeper score = new ScoreKeeper();
+            Player bot = new TablebaseBot(Symbol.X, tablebase);
+            Player opponent = new IntermediateBot(Symbol.O);
+            Game game = new Game(bot, opponent, score, Mode.SINGLE_PLAYER, size, winLength);
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                game.startNewRound((i % 2 == 0) ? bot : opponent);
+                BoardStatus status;
+                do {
+                    status = game.playTurn();
+                } while (status == BoardStatus.ONGOING);
+            }
+            System.out.printf("TablebaseBot contro IntermediateBot, %d round in %d ms: %s%n", ROUNDS,
+                    (System.nanoTime() - start) / 1_000_000, score);
+        }
+    }
+
+    /* Numero di posizioni raggiungibili del tris classico il cui valore nella tablebase differisce da quello di PerfectPlayTable */
+    private static int compareWithTable(Tablebase tablebase) {
+        PerfectPlayTable table = PerfectPlayTable.getInstance();
+        int mismatches = 0;
+        for (int mine = 0; mine < 512; mine++) {
+            for (int theirs = 0; theirs < 512; theirs++) {
+                if ((mine & theirs) == 0 && table.contains(mine, theirs)
+                        && table.getValue(mine, theirs) != tablebase.getValue(mine, theirs)) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+}
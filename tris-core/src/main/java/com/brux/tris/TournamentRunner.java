@@ -0,0 +1,37 @@
+package com.brux.tris;
+
+import com.brux.tris.ai.EasyBot;
+import com.brux.tris.ai.ExtremeBot;
+import com.brux.tris.ai.IntermediateBot;
+import com.brux.tris.service.GameLog;
+import com.brux.tris.sim.Tournament;
+import com.brux.tris.sim.TournamentResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/* Torneo tra i bot disponibili, utile come test di regressione sulla loro forza. Argomenti opzionali: round per accoppiamento, thread,
+*  percorso del registro (GameLog) in cui salvare tutti i round giocati */
+public class TournamentRunner {
+    public static void main(String[] args) throws IOException {
+        long rounds = (args.length > 0) ? Long.parseLong(args[0]) : 100_000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Tournament tournament = new Tournament(threads)
+                .addPlayer("Facile", EasyBot::new)
+                .addPlayer("Intermedio", IntermediateBot::new)
+                .addPlayer("Estremo", ExtremeBot::new);
+
+        if (args.length > 2) {
+            try (GameLog log = GameLog.open(Path.of(args[2]), 3, 3)) {
+                TournamentResult result = tournament.recordTo(log).run(rounds);
+                System.out.println(result);
+                System.out.println("Registro: " + log.getRecordCount() + " round, " + log.getLength() + " byte");
+            }
+            return;
+        }
+
+        TournamentResult result = tournament.run(rounds);
+        System.out.println(result);
+    }
+}
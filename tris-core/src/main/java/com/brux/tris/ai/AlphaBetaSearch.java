@@ -0,0 +1,334 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+import com.brux.tris.service.SearchEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/* Motore di ricerca riutilizzabile dai bot: negamax con potatura alpha-beta e tabella delle trasposizioni indicizzata dall'hash canonico
+*  della posizione mantenuto dalla Board, così che posizioni simmetriche vengano valutate una volta sola. La ricerca è esatta (fino alla fine
+*  della partita), dunque è praticabile solo su griglie piccole o su posizioni con poche celle libere; con un SearchBudget la ricerca procede
+*  invece per approfondimento iterativo e restituisce il risultato dell'ultima profondità completata. Non è thread-safe: ogni thread (o bot)
+*  deve utilizzare una propria istanza, mentre la tabella delle trasposizioni può essere condivisa (si veda ParallelSearch) */
+public class AlphaBetaSearch {
+
+    /* Punteggio base di una vittoria. Il punteggio effettivo è WIN_SCORE + celle ancora libere, così che le vittorie più rapide (e le
+    *  sconfitte più lente) siano preferite. Dipendendo solo dalla posizione e non dal cammino, il valore può essere salvato nella tabella */
+    public static final int WIN_SCORE = 1000;
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final TranspositionTable table;
+
+    /* Geometria dell'ultima board cercata: ordine di esplorazione delle celle (dal centro verso il bordo, così da trovare prima le mosse
+    *  che causano più tagli), ricalcolato solo quando cambia la dimensione della griglia */
+    private int size;
+    private int winLength;
+    private int[] moveOrder;
+
+    /* Statistiche della ricerca, azzerabili tramite resetStatistics */
+    private long nodes;
+    private long tableHits;
+
+    /* Budget della ricerca in corso: istante di scadenza, nodi a disposizione e segnalazione dell'esaurimento, a seguito della quale tutti
+    *  i livelli della ricerca terminano senza salvare nulla nella tabella */
+    private long deadline = Long.MAX_VALUE;
+    private long nodeLimit = Long.MAX_VALUE;
+    private boolean aborted;
+
+    /* Profondità dell'ultima iterazione completata da findBestMoves con budget */
+    private int lastDepth;
+    private int lastScore;
+
+    public AlphaBetaSearch() {
+        this(1 << 16);
+    }
+
+    /* Costruttore che permette di scegliere la capacità della tabella delle trasposizioni */
+    public AlphaBetaSearch(int tableCapacity) {
+        this(new TranspositionTable(tableCapacity));
+    }
+
+    /* Costruttore utilizzato dalla ricerca parallela, in cui più istanze condividono la stessa tabella */
+    AlphaBetaSearch(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Valore esatto della posizione per il giocatore che deve muovere. La board viene usata per effettuare e annullare le mosse, al ritorno
+     * si trova nello stesso stato in cui è stata ricevuta.
+     * @param board Board da valutare
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Punteggio positivo se vincente, negativo se perdente, 0 se patta
+     */
+    public int evaluate(Board board, Symbol toMove) {
+        return evaluate(board, toMove, -INFINITY, INFINITY);
+    }
+
+    /* Variante con finestra esplicita, utilizzata dalla ricerca parallela: il valore è esatto solo se compreso tra alpha e beta */
+    int evaluate(Board board, Symbol toMove, int alpha, int beta) {
+        prepare(board);
+        unlimited();
+        return search(board, toMove, alpha, beta, board.getEmptyCount());
+    }
+
+    /**
+     * Calcola tutte le mosse dal punteggio massimo per il giocatore che deve muovere. Ogni mossa viene cercata con una finestra che parte
+     * dal miglior punteggio trovato fino a quel momento, così che le mosse peggiori vengano scartate in fretta mentre quelle a pari merito
+     * ottengano comunque un valore esatto.
+     * @param board Board su cui cercare
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Lista delle mosse migliori, vuota se la partita è già conclusa
+     */
+    public List<Move> findBestMoves(Board board, Symbol toMove) {
+        if (board.getStatus() != BoardStatus.ONGOING) {
+            return new ArrayList<>();
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+
+        prepare(board);
+        unlimited();
+        List<Move> bestMoves = searchRoot(board, toMove, board.getEmptyCount(), -1);
+        event.record("alpha-beta", 0, nodes - startNodes, tableHits - startHits, false);
+        return bestMoves;
+    }
+
+    /**
+     * Variante di findBestMoves limitata dal budget passato, per approfondimento iterativo: si cerca a profondità 1, 2, 3... (considerando
+     * neutre le posizioni non concluse all'orizzonte) finché il budget non si esaurisce, la partita non è risolta o non si raggiunge la
+     * fine della partita. Ogni iterazione esplora per prima la migliore mossa della precedente e riutilizza la tabella delle trasposizioni.
+     * @param board Board su cui cercare
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @param budget Limite di tempo e/o di nodi
+     * @return Mosse migliori secondo l'ultima profondità completata (tutte le mosse se nemmeno la prima è stata completata), vuota se la
+     *         partita è già conclusa
+     */
+    public List<Move> findBestMoves(Board board, Symbol toMove, SearchBudget budget) {
+        if (budget.isUnlimited()) {
+            return findBestMoves(board, toMove);
+        }
+        if (board.getStatus() != BoardStatus.ONGOING) {
+            return new ArrayList<>();
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startNodes = nodes;
+        long startHits = tableHits;
+
+        prepare(board);
+        deadline = budget.deadlineFrom(System.nanoTime());
+        nodeLimit = (budget.getNodeLimit() == Long.MAX_VALUE) ? Long.MAX_VALUE : nodes + budget.getNodeLimit();
+        aborted = false;
+
+        List<Move> bestMoves = board.getAvailableMoves(toMove);
+        lastDepth = 0;
+        int completedScore = 0;
+        int empties = board.getEmptyCount();
+        for (int depth = 1; depth <= empties; depth++) {
+            int first = (lastDepth > 0) ? bestMoves.get(0).getRow() * size + bestMoves.get(0).getCol() : -1;
+            List<Move> found = searchRoot(board, toMove, depth, first);
+            if (aborted) {
+                break;      // iterazione incompleta: vale il risultato della precedente
+            }
+
+            bestMoves = found;
+            lastDepth = depth;
+            completedScore = lastScore;
+            if (lastScore >= WIN_SCORE || lastScore <= -WIN_SCORE) {
+                break;      // esito già deciso, cercare più a fondo non cambia la scelta
+            }
+        }
+
+        event.record("alpha-beta", lastDepth, nodes - startNodes, tableHits - startHits, aborted);
+        unlimited();
+        lastScore = completedScore;
+        return bestMoves;
+    }
+
+    /* Profondità dell'ultima iterazione completata dalla ricerca con budget */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /* Punteggio delle mosse restituite dall'ultima findBestMoves (con budget: dell'ultima profondità completata, 0 se nessuna). Un valore
+    *  almeno pari a WIN_SCORE in valore assoluto indica una partita già decisa */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /* Numero di nodi visitati dall'ultimo azzeramento delle statistiche */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /* Numero di nodi risolti (o ristretti) grazie alla tabella delle trasposizioni */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    public void resetStatistics() {
+        nodes = 0;
+        tableHits = 0;
+    }
+
+    /* Svuota la tabella delle trasposizioni */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /* Cerca le mosse della radice alla profondità passata, esplorando per prima la cella first (se non negativa). Ogni mossa viene cercata
+    *  con una finestra che parte dal miglior punteggio trovato fino a quel momento, così che le mosse peggiori vengano scartate in fretta
+    *  mentre quelle a pari merito ottengano comunque un valore esatto. Il punteggio migliore viene lasciato in lastScore */
+    private List<Move> searchRoot(Board board, Symbol toMove, int depth, int first) {
+        List<Move> bestMoves = new ArrayList<>();
+        Symbol opponent = opposite(toMove);
+        int bestScore = -INFINITY;
+
+        for (int i = -1; i < moveOrder.length; i++) {
+            int cell = (i < 0) ? first : moveOrder[i];
+            if (cell < 0 || (i >= 0 && cell == first)) {
+                continue;   // prima cella assente o già cercata
+            }
+            int row = cell / size;
+            int col = cell % size;
+            if (!board.applyMove(row, col, toMove)) {
+                continue;   // cella occupata
+            }
+
+            int score = -search(board, opponent, -INFINITY, -(bestScore - 1), depth - 1);
+            board.undoMove();
+            if (aborted) {
+                break;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMoves.clear();
+                bestMoves.add(Move.of(row, col, toMove));
+            } else if (score == bestScore) {
+                bestMoves.add(Move.of(row, col, toMove));
+            }
+        }
+
+        lastScore = bestScore;
+        return bestMoves;
+    }
+
+    /* Negamax con potatura alpha-beta fino a depth mosse: ritorna il punteggio dal punto di vista di toMove, esatto se compreso
+    *  strettamente tra alpha e beta, altrimenti un limite superiore (<= alpha) o inferiore (>= beta). Le posizioni non concluse
+    *  all'orizzonte valgono 0 */
+    private int search(Board board, Symbol toMove, int alpha, int beta, int depth) {
+        nodes++;
+        if ((nodes & 1023) == 0 && (nodes >= nodeLimit || System.nanoTime() >= deadline)) {
+            aborted = true;     // budget esaurito: il valore ritornato non verrà utilizzato
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        BoardStatus status = board.getStatus();
+        if (status == BoardStatus.DRAW) {
+            return 0;
+        }
+        if (status != BoardStatus.ONGOING) {
+            return -(WIN_SCORE + board.getCellCount() - board.getMoveCount());    // l'avversario ha appena vinto
+        }
+
+        if (depth <= 0) {
+            return 0;   // orizzonte: posizione considerata neutra
+        }
+
+        Symbol opponent = opposite(toMove);
+        long key = board.getCanonicalHash(toMove);
+        int effectiveDepth = Math.min(depth, board.getEmptyCount());   // oltre la fine della partita non si può andare
+
+        /* Consultazione della tabella: un valore cercato almeno altrettanto a fondo chiude il nodo se esatto, altrimenti restringe la
+        *  finestra */
+        int entry = table.probe(key);
+        if (entry != TranspositionTable.MISSING && TranspositionTable.depthOf(entry) >= effectiveDepth) {
+            tableHits++;
+            int stored = TranspositionTable.scoreOf(entry);
+            switch (TranspositionTable.flagOf(entry)) {
+                case TranspositionTable.EXACT -> {
+                    return stored;
+                }
+                case TranspositionTable.LOWER -> alpha = Math.max(alpha, stored);
+                default -> beta = Math.min(beta, stored);
+            }
+            if (alpha >= beta) {
+                return stored;
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+
+        for (int cell : moveOrder) {
+            if (!board.applyMove(cell / size, cell % size, toMove)) {
+                continue;   // cella occupata
+            }
+
+            int score = -search(board, opponent, -beta, -alpha, depth - 1);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break;      // taglio: l'avversario non permetterà mai di arrivare in questa posizione
+            }
+        }
+
+        int flag = (best <= originalAlpha) ? TranspositionTable.UPPER
+                : (best >= beta) ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, best, flag, effectiveDepth);
+
+        return best;
+    }
+
+    /* Aggiorna la geometria della ricerca qualora la board abbia una dimensione diversa da quella dell'ultima ricerca. Dal momento che
+    *  la chiave non codifica la lunghezza dell'allineamento, board diverse condividerebbero la tabella: in tal caso questa viene svuotata */
+    private void prepare(Board board) {
+        if (moveOrder != null && board.getSize() == size && board.getWinLength() == winLength) {
+            return;
+        }
+
+        if (moveOrder != null) {
+            table.clear();
+        }
+        size = board.getSize();
+        winLength = board.getWinLength();
+
+        double center = (size - 1) / 2.0;
+        moveOrder = IntStream.range(0, size * size)
+                .boxed()
+                .sorted(Comparator.comparingDouble(cell -> Math.hypot(cell / size - center, cell % size - center)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /* Rimuove i limiti del budget, per le ricerche esatte */
+    private void unlimited() {
+        deadline = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        aborted = false;
+    }
+
+    // Ritorna il simbolo opposto di quello passato per parametro
+    private static Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+}
@@ -2,12 +2,12 @@ package com.brux.tris.ai;
 
 import com.brux.tris.model.*;
 
-import java.util.List;
 import java.util.random.RandomGenerator;
 
 public class EasyBot extends BotPlayer {
 
     private final RandomGenerator rnd = RandomGenerator.getDefault();
+    private int[] cells = new int[Board.DEFAULT_SIZE * Board.DEFAULT_SIZE];
 
     public EasyBot(Symbol symbol) {
         super(symbol);
@@ -29,11 +29,14 @@ public class EasyBot extends BotPlayer {
             return winningMove;
         }
 
-        // 2. Altrimenti, gioca random su una delle celle libere
-        List<Move> available = board.getAvailableMoves(getSymbol());
-        if (available.isEmpty()) {
+        // 2. Altrimenti, gioca random su una delle celle libere, raccolte in un buffer riutilizzato tra una mossa e l'altra
+        if (cells.length < board.getCellCount()) {
+            cells = new int[board.getCellCount()];
+        }
+        int available = board.fillAvailableMoves(cells);
+        if (available == 0) {
             throw new IllegalStateException("makeMove called on full board");
         }
-        return available.get(rnd.nextInt(available.size()));
+        return Move.ofCell(cells[rnd.nextInt(available)], board.getSize(), getSymbol());
     }
 }
\ No newline at end of file
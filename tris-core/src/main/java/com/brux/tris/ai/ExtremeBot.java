@@ -0,0 +1,164 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/* Bot a gioco perfetto. Se creato con più thread possiede il pool della propria ricerca parallela, da liberare con close (per ExtremeBot
+*  con un solo thread close non fa nulla) */
+public class ExtremeBot extends BotPlayer implements AutoCloseable {
+
+    private final RandomGenerator rnd = RandomGenerator.getDefault();
+
+    /* Tabella delle posizioni risolte, costruita una sola volta e condivisa da tutti gli ExtremeBot */
+    private final PerfectPlayTable table = PerfectPlayTable.getInstance();
+
+    /* Motore di ricerca utilizzato per le posizioni non presenti nella tabella (ad esempio board preparate a mano). Essendo la sua
+    *  tabella delle trasposizioni mantenuta tra una mossa e l'altra, le ricerche successive alla prima sono quasi immediate. Creato alla
+    *  prima posizione non risolta dalla tabella, così che sul tris 3x3 il bot non allochi la tabella delle trasposizioni */
+    private AlphaBetaSearch search;
+
+    /* Ricerca parallela, presente solo se il bot è stato creato con più di un thread */
+    private final ParallelSearch parallelSearch;
+
+    /* Eventuale libro delle aperture, consultato prima di cercare la mossa */
+    private OpeningBook openingBook;
+
+    public ExtremeBot(Symbol symbol) {
+        this(symbol, 1);
+    }
+
+    /* Costruttore che abilita la ricerca parallela su threads thread per le posizioni non risolte dalla tabella */
+    public ExtremeBot(Symbol symbol, int threads) {
+        super(symbol);
+        this.parallelSearch = (threads > 1) ? new ParallelSearch(threads) : null;
+    }
+
+    /* Imposta il libro delle aperture da consultare (null per nessuno). Lo stesso libro può essere condiviso da più bot, anche su thread
+    *  diversi; viene ignorato sulle griglie diverse dalla sua */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    /**
+     * Metodo che sceglie una mossa ottimale consultando la tabella delle posizioni risolte, dunque in tempo costante, oppure tramite
+     * AlphaBetaSearch qualora la posizione non vi sia presente o la board non sia 3x3 (in tal caso la ricerca è esatta, dunque praticabile
+     * solo su griglie piccole, a meno che la posizione non sia nel libro delle aperture del bot). Qualora più mosse abbiano lo stesso
+     * valore, la scelta tra di esse avviene in modo randomico.
+     * @param board Board che mantiene lo stato attuale della partita
+     * @return Una delle mosse migliori per il bot
+     */
+    @Override
+    public Move makeMove(Board board) {
+        if (!PerfectPlayTable.supports(board)) {
+            Move book = (openingBook != null) ? openingBook.pickMove(board, getSymbol()) : null;
+            return (book != null) ? book : searchMove(board);   // griglie diverse dal tris classico
+        }
+
+        int mine = (int) board.getMask(getSymbol());
+        int theirs = (int) board.getMask(opposite(getSymbol()));
+
+        if (!table.contains(mine, theirs)) {
+            return searchMove(board);
+        }
+
+        // Si possono avere più mosse dallo stesso valore, codificate come bit accesi della maschera
+        int bestMoves = table.getBestMoves(mine, theirs);
+
+        if (bestMoves == 0) {
+            // Fallback anche se non dovrebbe accadere che il metodo sia passato con una Board piena o già conclusa
+            return randomMove(board);
+        }
+
+        // Scelta random tra le migliori mosse: si scartano i primi n bit accesi e si prende il successivo
+        for (int skip = rnd.nextInt(Integer.bitCount(bestMoves)); skip > 0; skip--) {
+            bestMoves &= bestMoves - 1;
+        }
+        int cell = Integer.numberOfTrailingZeros(bestMoves);
+
+        return Move.ofCell(cell, 3, getSymbol());
+    }
+
+    /**
+     * Variante di makeMove con budget: le posizioni presenti nella tabella (o nel libro delle aperture) vengono risolte comunque senza
+     * ricerca, le altre vengono cercate per approfondimento iterativo fino allo scadere del budget, restituendo la migliore mossa
+     * dell'ultima profondità completata
+     * @param board Board che mantiene lo stato attuale della partita
+     * @param budget Limite di tempo e/o di nodi per la ricerca
+     */
+    @Override
+    public Move makeMove(Board board, SearchBudget budget) {
+        if (budget.isUnlimited() || (PerfectPlayTable.supports(board)
+                && table.contains((int) board.getMask(getSymbol()), (int) board.getMask(opposite(getSymbol()))))) {
+            return makeMove(board);
+        }
+        Move book = (openingBook != null) ? openingBook.pickMove(board, getSymbol()) : null;
+        if (book != null) {
+            return book;
+        }
+
+        List<Move> bestMoves = search().findBestMoves(copyBoard(board), getSymbol(), budget);
+        if (bestMoves.isEmpty()) {
+            return randomMove(board);
+        }
+        return bestMoves.get(rnd.nextInt(bestMoves.size()));
+    }
+
+    /* Nodi visitati dal motore di ricerca del bot (0 finché tutte le posizioni incontrate sono state risolte dalla tabella) */
+    @Override
+    public long getSearchNodes() {
+        return ((search != null) ? search.getNodes() : 0) + ((parallelSearch != null) ? parallelSearch.getNodes() : 0);
+    }
+
+    /* Nodi risolti grazie alla tabella delle trasposizioni del motore di ricerca del bot */
+    @Override
+    public long getTableHits() {
+        return ((search != null) ? search.getTableHits() : 0) + ((parallelSearch != null) ? parallelSearch.getTableHits() : 0);
+    }
+
+    /* Motore di ricerca del bot, creato al primo utilizzo */
+    private AlphaBetaSearch search() {
+        if (search == null) {
+            search = new AlphaBetaSearch();
+        }
+        return search;
+    }
+
+    /* Ricerca completa (sequenziale o parallela) su una copia della board, con scelta random tra le mosse a pari merito */
+    private Move searchMove(Board board) {
+        List<Move> bestMoves = (parallelSearch != null)
+                ? parallelSearch.findBestMoves(board, getSymbol())
+                : search().findBestMoves(copyBoard(board), getSymbol());
+        if (bestMoves.isEmpty()) {
+            return randomMove(board);
+        }
+        return bestMoves.get(rnd.nextInt(bestMoves.size()));
+    }
+
+    /* Mossa casuale tra quelle disponibili, usata solamente su board già concluse */
+    private Move randomMove(Board board) {
+        List<Move> available = board.getAvailableMoves(getSymbol());
+        if (available.isEmpty()) {
+            throw new IllegalStateException("makeMove called on full board");
+        }
+        return available.get(rnd.nextInt(available.size()));
+    }
+
+    /* Termina i thread della ricerca parallela, se presente: il bot resta utilizzabile solo sulle posizioni della tabella */
+    @Override
+    public void close() {
+        if (parallelSearch != null) {
+            parallelSearch.close();
+        }
+    }
+
+    // Ritorna il simbolo opposto di quello passato per parametro
+    private Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+}
@@ -2,8 +2,6 @@ package com.brux.tris.ai;
 
 import com.brux.tris.model.*;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.random.RandomGenerator;
 
 public class IntermediateBot extends BotPlayer {
@@ -11,6 +9,9 @@ public class IntermediateBot extends BotPlayer {
     /* Generatore randomico che permette la scelta randomica tra le celle "buone" qualora ce ne sia la possibilità */
     private final RandomGenerator rnd = RandomGenerator.getDefault();
 
+    /* Buffer riutilizzato per le celle libere, ingrandito solo quando cambia la dimensione della griglia */
+    private int[] cells = new int[Board.DEFAULT_SIZE * Board.DEFAULT_SIZE];
+
     /* Costruttore che si appoggia a quello definito nella superclasse astratta BotPlayer */
     public IntermediateBot(Symbol symbol) {
         super(symbol);
@@ -32,46 +33,57 @@ public class IntermediateBot extends BotPlayer {
     @Override
     public Move makeMove(Board board) {
         /* 1. Prova a vincere */
-        Move winningMove = findWinningMove(board, getSymbol());
-        if (winningMove != null) {
-            return winningMove;
+        int winningCell = findWinningCell(board, getSymbol());
+        if (winningCell >= 0) {
+            return Move.ofCell(winningCell, board.getSize(), getSymbol());
         }
 
 
         /* 2. Prova a fermare l'avversario */
         Symbol opponent = (getSymbol() == Symbol.X) ? Symbol.O : Symbol.X;  // ottenimento simbolo dell'avversario
-        Move blockingMove = findWinningMove(board, opponent);               // ricerca posizione di vittoria dell'avversario
-        if (blockingMove != null) {
-            return new Move(blockingMove.getRow(), blockingMove.getCol(), getSymbol());  // si utilizza tale mossa ma con simbolo del bot
+        int blockingCell = findWinningCell(board, opponent);                // ricerca posizione di vittoria dell'avversario
+        if (blockingCell >= 0) {
+            return Move.ofCell(blockingCell, board.getSize(), getSymbol());  // si utilizza tale cella ma con simbolo del bot
         }
 
 
-        /* 3. Gioca random su centro + corners */
-        List<int[]> priorityCells = new ArrayList<>();
+        /* 3. Gioca random su centro + corners. Su griglie di lato pari il centro è composto dalle 4 celle centrali. La scelta uniforme
+        *  avviene man mano che si incontrano le celle libere (reservoir sampling), senza doverle raccogliere in una lista */
+        int size = board.getSize();
+        int last = size - 1;
+        int choice = -1;
+        int candidates = 0;
 
-        if (board.isCellEmpty(1, 1)) { // Aggiunta centro se disponibile
-            priorityCells.add(new int[]{1, 1});
+        for (int r = last / 2; r <= (last + 1) / 2; r++) {   // centro se disponibile
+            for (int c = last / 2; c <= (last + 1) / 2; c++) {
+                if (board.isCellEmpty(r, c) && rnd.nextInt(++candidates) == 0) {
+                    choice = r * size + c;
+                }
+            }
         }
 
-        int[][] corners = {{0,0}, {0,2}, {2,0}, {2,2}};
-        for (int[] c : corners) {   // Aggiunta corners disponibili
-            if (board.isCellEmpty(c[0], c[1])) {
-                priorityCells.add(c);
+        for (int r = 0; r <= last; r += Math.max(last, 1)) {   // corners disponibili
+            for (int c = 0; c <= last; c += Math.max(last, 1)) {
+                if (board.isCellEmpty(r, c) && rnd.nextInt(++candidates) == 0) {
+                    choice = r * size + c;
+                }
             }
         }
 
-        if (!priorityCells.isEmpty()) {
-            int[] choice = priorityCells.get(rnd.nextInt(priorityCells.size()));
-            return new Move(choice[0], choice[1], getSymbol());
+        if (choice >= 0) {
+            return Move.ofCell(choice, size, getSymbol());
         }
 
 
         /* 4. Gioca su una casella randomica di quelle available */
-        List<Move> available = board.getAvailableMoves(getSymbol());
-        if (available.isEmpty()) {
+        if (cells.length < board.getCellCount()) {
+            cells = new int[board.getCellCount()];
+        }
+        int available = board.fillAvailableMoves(cells);
+        if (available == 0) {
             /* Avvenuto errore da qualche parte, se si chiama makeMove su un player, la board non può essere piena */
             throw new IllegalStateException("makeMove called on full board");
         }
-        return available.get(rnd.nextInt(available.size()));
+        return Move.ofCell(cells[rnd.nextInt(available)], size, getSymbol());
     }
 }
@@ -0,0 +1,529 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+import com.brux.tris.service.SearchEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/* Bot basato su Monte Carlo Tree Search (UCT): invece di esplorare l'intero albero delle mosse, come fa ExtremeBot, costruisce solo la parte
+*  più promettente guidandosi con i risultati di partite simulate fino alla fine (playout). È dunque utilizzabile anche su griglie grandi,
+*  dove la ricerca esatta è impraticabile. Con più thread si utilizza la parallelizzazione alla radice: ogni thread costruisce un proprio
+*  albero a partire dalla stessa posizione, e al termine le visite delle mosse della radice vengono sommate. Il pool dei thread appartiene
+*  al bot e va liberato con close */
+public class MctsBot extends BotPlayer implements AutoCloseable {
+
+    /* Costante di esplorazione della formula UCT */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /* Budget di default: numero totale di playout per mossa */
+    private static final int DEFAULT_ITERATIONS = 20_000;
+
+    /* Su griglie con più celle di questa soglia si considerano solo le celle entro NEIGHBOURHOOD da una cella occupata: le altre non
+    *  influenzano la partita nel breve periodo, e ridurre il numero di figli concentra i playout sulle mosse sensate */
+    private static final int SMALL_BOARD_CELLS = 25;
+    private static final int NEIGHBOURHOOD = 2;
+
+    /* Limite di nodi dell'albero di ciascun thread: raggiunto il limite l'albero smette di crescere e si continuano a fare playout dalle
+    *  foglie esistenti */
+    private static final int MAX_NODES = 1 << 20;
+
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final RandomGenerator rnd = RandomGenerator.getDefault();
+
+    /* Budget per mossa: numero totale di playout (0 = illimitato) e tempo massimo (0 = illimitato), almeno uno dei due è presente */
+    private final long maxIterations;
+    private final long timeLimitNanos;
+
+    /* Un albero (e una board di lavoro) per thread, riutilizzati tra una mossa e l'altra. Il pool è presente solo con più thread */
+    private final Worker[] workers;
+    private final ForkJoinPool pool;
+
+    /* Buffer riutilizzato per le mosse candidate della radice */
+    private int[] rootMoves = new int[Board.DEFAULT_SIZE * Board.DEFAULT_SIZE];
+
+    /* Playout effettuati per l'ultima mossa, sommati su tutti i thread */
+    private long lastIterations;
+    private long totalIterations;
+
+    /* Eventuale libro delle aperture, consultato prima di cercare la mossa */
+    private OpeningBook openingBook;
+
+    public MctsBot(Symbol symbol) {
+        this(symbol, DEFAULT_ITERATIONS, 1);
+    }
+
+    /**
+     * Bot con budget espresso in numero di playout per mossa, suddivisi tra i thread
+     * @param iterations Numero totale di playout per mossa
+     * @param threads Numero di alberi costruiti in parallelo
+     * @throws IllegalArgumentException se iterations o threads sono minori di 1
+     */
+    public MctsBot(Symbol symbol, int iterations, int threads) {
+        this(symbol, iterations, 0L, threads);
+    }
+
+    /**
+     * Bot con budget espresso in tempo per mossa: ogni thread continua ad effettuare playout fino allo scadere del tempo, dunque la forza
+     * del bot cresce con il numero di core
+     * @param timeLimit Tempo a disposizione per ogni mossa
+     * @param threads Numero di alberi costruiti in parallelo
+     * @throws IllegalArgumentException se timeLimit non è positivo o threads è minore di 1
+     */
+    public MctsBot(Symbol symbol, Duration timeLimit, int threads) {
+        this(symbol, 0L, timeLimit.toNanos(), threads);
+    }
+
+    private MctsBot(Symbol symbol, long maxIterations, long timeLimitNanos, int threads) {
+        super(symbol);
+        if (maxIterations < 0 || timeLimitNanos < 0 || (maxIterations == 0 && timeLimitNanos == 0)) {
+            throw new IllegalArgumentException("Il budget per mossa deve essere positivo");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads deve essere almeno 1");
+        }
+        this.maxIterations = maxIterations;
+        this.timeLimitNanos = timeLimitNanos;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(new SplittableRandom(rnd.nextLong()));
+        }
+        this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+    }
+
+    /* Imposta il libro delle aperture da consultare (null per nessuno). Lo stesso libro può essere condiviso da più bot, anche su thread
+    *  diversi; viene ignorato sulle griglie diverse dalla sua */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    /**
+     * Metodo che sceglie la mossa tramite MCTS. Prima della ricerca si controllano le mosse forzate: se il bot può vincere subito vince, se
+     * l'avversario minaccia di vincere lo blocca; poi si consulta l'eventuale libro delle aperture. Altrimenti si sceglie la mossa della
+     * radice più visitata dai playout.
+     * @param board Board che mantiene lo stato attuale della partita
+     * @return La mossa ritenuta migliore per il bot
+     */
+    @Override
+    public Move makeMove(Board board) {
+        long deadline = (timeLimitNanos > 0) ? System.nanoTime() + timeLimitNanos : Long.MAX_VALUE;
+        return search(board, (maxIterations > 0) ? maxIterations : Long.MAX_VALUE, deadline);
+    }
+
+    /**
+     * Variante di makeMove con budget, che sostituisce quello indicato alla costruzione del bot: il limite di nodi è il numero totale di
+     * playout, e allo scadere del tempo si sceglie la mossa più visitata fino a quel momento
+     * @param board Board che mantiene lo stato attuale della partita
+     * @param budget Limite di tempo e/o di playout
+     */
+    @Override
+    public Move makeMove(Board board, SearchBudget budget) {
+        if (budget.isUnlimited()) {
+            return makeMove(board);
+        }
+        return search(board, budget.getNodeLimit(), budget.deadlineFrom(System.nanoTime()));
+    }
+
+    /* Scelta della mossa con il budget passato: numero totale di playout e istante di scadenza */
+    private Move search(Board board, long iterations, long deadline) {
+        if (board.getStatus() != BoardStatus.ONGOING || board.getEmptyCount() == 0) {
+            throw new IllegalStateException("makeMove called on full board");
+        }
+
+        /* 1. Mosse forzate: vittoria immediata o blocco della vittoria dell'avversario, poi il libro delle aperture */
+        int forced = findWinningCell(board, getSymbol());
+        if (forced < 0) {
+            forced = findWinningCell(board, opposite(getSymbol()));
+        }
+        if (forced >= 0) {
+            lastIterations = 0;
+            return Move.ofCell(forced, board.getSize(), getSymbol());
+        }
+        Move book = (openingBook != null) ? openingBook.pickMove(board, getSymbol()) : null;
+        if (book != null) {
+            lastIterations = 0;
+            return book;
+        }
+
+        /* 2. Mosse candidate della radice, identiche per tutti i thread così che le visite possano essere sommate per indice */
+        if (rootMoves.length < board.getCellCount()) {
+            rootMoves = new int[board.getCellCount()];
+        }
+        int count = candidates(board, rootMoves);
+        if (count == 1) {
+            lastIterations = 0;
+            return Move.ofCell(rootMoves[0], board.getSize(), getSymbol());
+        }
+
+        /* 3. Ricerca: ogni thread costruisce il proprio albero entro il budget */
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long perWorker = (iterations == Long.MAX_VALUE) ? Long.MAX_VALUE : (iterations + workers.length - 1) / workers.length;
+
+        if (pool == null) {
+            workers[0].search(board, getSymbol(), rootMoves, count, perWorker, deadline);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(workers.length);
+            for (Worker worker : workers) {
+                tasks.add(() -> {
+                    worker.search(board, getSymbol(), rootMoves, count, perWorker, deadline);
+                    return null;
+                });
+            }
+            pool.invokeAll(tasks);
+        }
+
+        /* 4. Somma delle visite alla radice e scelta della mossa più visitata (a parità, in modo randomico) */
+        lastIterations = 0;
+        int best = -1;
+        long bestVisits = -1;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            long visits = 0;
+            for (Worker worker : workers) {
+                visits += worker.rootVisits(i);
+            }
+            lastIterations += visits;
+
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = i;
+                ties = 1;
+            } else if (visits == bestVisits && rnd.nextInt(++ties) == 0) {
+                best = i;
+            }
+        }
+        totalIterations += lastIterations;
+        event.record("mcts", 0, lastIterations, 0, System.nanoTime() >= deadline);
+        return Move.ofCell(rootMoves[best], board.getSize(), getSymbol());
+    }
+
+    /* Numero di playout effettuati per l'ultima mossa (0 se la mossa era forzata) */
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    /* Numero di playout effettuati dalla creazione del bot */
+    @Override
+    public long getSearchNodes() {
+        return totalIterations;
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /* Termina i thread del pool, se presente (bot con più thread): il bot non va più utilizzato */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /* Scrive nel buffer le celle libere da considerare come mosse e ne ritorna il numero. Sulle griglie grandi si scartano le celle
+    *  lontane da quelle occupate, e sulla board vuota si gioca al centro */
+    private static int candidates(Board board, int[] buffer) {
+        int count = board.fillAvailableMoves(buffer);
+        if (board.getCellCount() <= SMALL_BOARD_CELLS) {
+            return count;
+        }
+        if (board.getMoveCount() == 0) {
+            buffer[0] = (board.getSize() / 2) * board.getSize() + board.getSize() / 2;
+            return 1;
+        }
+
+        int size = board.getSize();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = buffer[i] / size;
+            int col = buffer[i] % size;
+            if (hasNeighbour(board, row, col)) {
+                buffer[kept++] = buffer[i];
+            }
+        }
+        return kept;
+    }
+
+    /* Predicato che verifica se entro NEIGHBOURHOOD dalla cella passata sia presente almeno una cella occupata */
+    private static boolean hasNeighbour(Board board, int row, int col) {
+        int size = board.getSize();
+        for (int r = Math.max(0, row - NEIGHBOURHOOD); r <= Math.min(size - 1, row + NEIGHBOURHOOD); r++) {
+            for (int c = Math.max(0, col - NEIGHBOURHOOD); c <= Math.min(size - 1, col + NEIGHBOURHOOD); c++) {
+                if (!board.isCellEmpty(r, c)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Ritorna il simbolo opposto di quello passato per parametro
+    private static Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+
+    /* Albero di ricerca di un singolo thread, memorizzato in array paralleli (un indice per nodo) così che né la crescita dell'albero né i
+    *  playout producano oggetti: gli array vengono allocati una volta e ingranditi solo quando serve, e sono riutilizzati tra le mosse.
+    *  I figli di un nodo occupano posizioni consecutive a partire da firstChild */
+    private static final class Worker {
+
+        private final SplittableRandom random;
+
+        private int[] parent = new int[1 << 12];
+        private int[] cell = new int[1 << 12];         // mossa che porta dal padre al nodo
+        private int[] firstChild = new int[1 << 12];
+        private int[] childCount = new int[1 << 12];
+        private int[] visits = new int[1 << 12];
+        private double[] wins = new double[1 << 12];   // dal punto di vista del giocatore che ha effettuato la mossa del nodo
+        private int nodeCount;
+
+        private int[] buffer = new int[Board.DEFAULT_SIZE * Board.DEFAULT_SIZE];
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /* Visite del figlio i-esimo della radice nell'ultima ricerca */
+        int rootVisits(int i) {
+            return visits[firstChild[0] + i];
+        }
+
+        /* Costruisce un nuovo albero a partire dalla posizione passata, i cui figli della radice sono le mosse in moves */
+        void search(Board position, Symbol toMove, int[] moves, int count, long maxIterations, long deadline) {
+            Board board = new Board(position);  // copia di lavoro del thread, su cui si effettuano e annullano le mosse
+            int rootMoveCount = board.getMoveCount();
+            if (buffer.length < board.getCellCount()) {
+                buffer = new int[board.getCellCount()];
+            }
+
+            nodeCount = 0;
+            int root = newNode(-1, -1);
+            ensureCapacity(count);
+            firstChild[root] = nodeCount;
+            childCount[root] = count;
+            for (int i = 0; i < count; i++) {
+                newNode(root, moves[i]);
+            }
+
+            for (long iteration = 0; iteration < maxIterations; iteration++) {
+                if ((iteration & 63) == 0 && System.nanoTime() >= deadline) {
+                    break;  // il tempo viene controllato ogni 64 playout, così da non pesare sul ciclo
+                }
+
+                /* 1. Selezione: si scende lungo l'albero seguendo la formula UCT, effettuando le mosse sulla board */
+                int node = root;
+                Symbol mover = toMove;
+                while (childCount[node] > 0) {
+                    node = select(node);
+                    board.applyMove(cell[node], mover);
+                    mover = opposite(mover);
+                }
+
+                /* 2. Espansione: una foglia già simulata almeno una volta riceve i propri figli, e si prosegue su uno di essi */
+                if (visits[node] > 0 && board.getStatus() == BoardStatus.ONGOING && expand(node, board)) {
+                    node = select(node);
+                    board.applyMove(cell[node], mover);
+                    mover = opposite(mover);
+                }
+
+                /* 3. Simulazione fino alla fine della partita, poi ritorno alla posizione della radice */
+                BoardStatus result = playout(board, mover);
+                while (board.getMoveCount() > rootMoveCount) {
+                    board.undoMove();
+                }
+
+                /* 4. Retropropagazione: ogni nodo viene premiato dal punto di vista di chi ha effettuato la sua mossa */
+                Symbol moved = opposite(mover);
+                for (int n = node; n >= 0; n = parent[n]) {
+                    visits[n]++;
+                    wins[n] += reward(result, moved);
+                    moved = opposite(moved);
+                }
+            }
+        }
+
+        /* Figlio del nodo con il valore UCT massimo; i figli mai visitati hanno la precedenza, nell'ordine (casuale) di espansione */
+        private int select(int node) {
+            int first = firstChild[node];
+            int last = first + childCount[node];
+            double logVisits = Math.log(Math.max(1, visits[node]));
+
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < last; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = wins[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /* Crea i figli del nodo, in ordine casuale, per le mosse candidate della posizione attuale. Ritorna false se l'albero è pieno */
+        private boolean expand(int node, Board board) {
+            int count = candidates(board, buffer);
+            if (count == 0 || nodeCount + count > MAX_NODES) {
+                return false;
+            }
+            ensureCapacity(count);
+
+            for (int i = count - 1; i > 0; i--) {   // mescolamento di Fisher-Yates
+                int j = random.nextInt(i + 1);
+                int tmp = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = tmp;
+            }
+
+            firstChild[node] = nodeCount;
+            childCount[node] = count;
+            for (int i = 0; i < count; i++) {
+                newNode(node, buffer[i]);
+            }
+            return true;
+        }
+
+        /* Partita simulata a partire dalla posizione attuale con una politica leggera: si vince subito se possibile, altrimenti si blocca la
+        *  vittoria immediata dell'avversario, altrimenti si gioca in una cella libera a caso */
+        private BoardStatus playout(Board board, Symbol mover) {
+            while (board.getStatus() == BoardStatus.ONGOING) {
+                Symbol opponent = opposite(mover);
+                int move = threatCell(board, mover, board.getMoveCount() - 2);
+                if (move < 0) {
+                    move = threatCell(board, opponent, board.getMoveCount() - 1);
+                }
+                if (move < 0) {
+                    move = randomCell(board);
+                }
+                board.applyMove(move, mover);
+                mover = opponent;
+            }
+            return board.getStatus();
+        }
+
+        /* Cella libera in cui symbol vincerebbe subito lungo le linee passanti per la mossa di indice m, -1 se assente: lungo ogni
+        *  direzione si fa scorrere una finestra di winLength celle cercandone una con winLength - 1 simboli di symbol e una sola cella
+        *  libera. Si tratta di un'approssimazione, scelta per non controllare tutte le celle della griglia ad ogni mossa del playout:
+        *  è esatta per le minacce create dalle mosse della politica, che vengono sfruttate o bloccate subito, ma le minacce create da
+        *  mosse precedenti (in particolare quelle scelte da UCT durante la discesa nell'albero, che precedono le prime mosse del playout)
+        *  non vengono viste, dunque qualche vittoria immediata può essere mancata */
+        private int threatCell(Board board, Symbol symbol, int m) {
+            if (m < 0) {
+                return -1;
+            }
+            int size = board.getSize();
+            int length = board.getWinLength();
+            int row = board.getMoveAt(m) / size;
+            int col = board.getMoveAt(m) % size;
+
+            for (int[] dir : DIRECTIONS) {
+                int own = 0;
+                int empty = 0;
+                int lastEmpty = -1;     // se la finestra contiene una sola cella libera, è l'ultima incontrata
+                int inWindow = 0;
+
+                for (int step = 1 - length; step < length; step++) {
+                    int r = row + step * dir[0];
+                    int c = col + step * dir[1];
+                    if (r < 0 || r >= size || c < 0 || c >= size) {
+                        if (step < 0) {
+                            continue;
+                        }
+                        break;      // le celle in griglia lungo la linea sono consecutive
+                    }
+
+                    Symbol entering = board.getCell(r, c);
+                    if (entering == symbol) {
+                        own++;
+                    } else if (entering == Symbol.EMPTY) {
+                        empty++;
+                        lastEmpty = r * size + c;
+                    }
+
+                    if (++inWindow > length) {
+                        Symbol leaving = board.getCell(r - length * dir[0], c - length * dir[1]);
+                        if (leaving == symbol) {
+                            own--;
+                        } else if (leaving == Symbol.EMPTY) {
+                            empty--;
+                        }
+                        inWindow--;
+                    }
+
+                    if (inWindow == length && own == length - 1 && empty == 1) {
+                        return lastEmpty;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /* Cella libera scelta uniformemente: finché la board è poco piena si estraggono celle a caso fino a trovarne una libera, poi si
+        *  passa all'elenco delle celle libere */
+        private int randomCell(Board board) {
+            int cells = board.getCellCount();
+            if (board.getEmptyCount() * 4 >= cells) {
+                while (true) {
+                    int cell = random.nextInt(cells);
+                    if (board.isCellEmpty(cell)) {
+                        return cell;
+                    }
+                }
+            }
+            int count = board.fillAvailableMoves(buffer);
+            return buffer[random.nextInt(count)];
+        }
+
+        private static double reward(BoardStatus result, Symbol player) {
+            if (result == BoardStatus.DRAW) {
+                return 0.5;
+            }
+            BoardStatus win = (player == Symbol.X) ? BoardStatus.WIN_X : BoardStatus.WIN_O;
+            return (result == win) ? 1.0 : 0.0;
+        }
+
+        private int newNode(int parentNode, int move) {
+            ensureCapacity(1);
+            int node = nodeCount++;
+            parent[node] = parentNode;
+            cell[node] = move;
+            firstChild[node] = 0;
+            childCount[node] = 0;
+            visits[node] = 0;
+            wins[node] = 0.0;
+            return node;
+        }
+
+        /* Raddoppia gli array qualora non possano contenere altri extra nodi */
+        private void ensureCapacity(int extra) {
+            if (nodeCount + extra <= parent.length) {
+                return;
+            }
+            int capacity = parent.length;
+            while (capacity < nodeCount + extra) {
+                capacity *= 2;
+            }
+            parent = Arrays.copyOf(parent, capacity);
+            cell = Arrays.copyOf(cell, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            visits = Arrays.copyOf(visits, capacity);
+            wins = Arrays.copyOf(wins, capacity);
+        }
+    }
+}
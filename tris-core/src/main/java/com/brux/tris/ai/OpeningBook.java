@@ -0,0 +1,232 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/* Libro delle aperture in sola lettura, costruito offline da OpeningBookBuilder: per ogni posizione le migliori mosse (al più MAX_MOVES)
+*  e il valore per il giocatore che deve muovere. Il file viene mappato in memoria e mai letto per intero: una ricerca binaria sulle voci,
+*  ordinate per hash, tocca una ventina di pagine, dunque anche un libro di alcuni gigabyte si apre in tempo costante e occupa nello heap
+*  solo i riferimenti ai blocchi mappati. La lettura non modifica nulla, dunque lo stesso libro può essere consultato da più thread.
+*
+*  Le posizioni sono indicizzate dall'hash canonico relativo al giocatore che deve muovere (Board.getCanonicalHash(Symbol)), e le mosse
+*  sono salvate nel riferimento canonico (Board.getCanonicalSymmetry), così che una sola voce copra tutte le posizioni simmetriche e quelle
+*  a simboli invertiti.
+*
+*  Intestazione del file (HEADER_SIZE byte): magic, versione, dimensione e allineamento della griglia, numero di voci. Seguono le voci da
+*  ENTRY_SIZE byte, ordinate per hash senza segno: l'hash, poi un long con
+*  <ul>
+*      <li> bit 0-1: valore (0 sconfitta, 1 pareggio, 2 vittoria) </li>
+*      <li> bit 2: valore esatto (ricerca fino alla fine della partita) o stimato (ricerca limitata, partite registrate) </li>
+*      <li> bit 3-4: numero di mosse </li>
+*      <li> bit 16-63: fino a tre celle del riferimento canonico, 16 bit ciascuna </li>
+*  </ul> */
+public final class OpeningBook implements AutoCloseable {
+
+    public static final int MAX_MOVES = 3;
+
+    static final long MAGIC = 0x54524953_424F4F01L;     // "TRISBOO" + 1
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COUNT_OFFSET = 16;
+    static final int ENTRY_SIZE = 16;
+
+    /* Blocchi da 1 GB (il massimo per un singolo MappedByteBuffer è 2 GB): essendo multipli di ENTRY_SIZE, come l'intestazione, nessuna
+    *  voce è mai a cavallo tra due blocchi */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int size;
+    private final int winLength;
+    private final long count;
+    private final Zobrist zobrist;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer[] chunks, int size, int winLength, long count) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.size = size;
+        this.winLength = winLength;
+        this.count = count;
+        this.zobrist = Zobrist.of(size);
+    }
+
+    /**
+     * Apre il libro al percorso passato, mappandolo in memoria senza leggerne le voci
+     * @throws IllegalArgumentException se il file non è un libro delle aperture, ha una geometria non valida o è troncato
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IllegalArgumentException("Il file " + path + " non è un libro delle aperture");
+            }
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((fileSize + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, fileSize - start));
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            /* Dimensione e allineamento occupano un byte con segno ciascuno, come scritti da OpeningBookBuilder (griglie fino a
+            *  127x127): valori diversi indicano un file corrotto o non prodotto dal builder */
+            MappedByteBuffer header = chunks[0];
+            int size = header.get(12);
+            int winLength = header.get(13);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION || size < 1 || winLength < 1 || winLength > size) {
+                throw new IllegalArgumentException("Il file " + path
+                        + " non è un libro delle aperture (o è di una versione non supportata)");
+            }
+            long count = header.getLong(COUNT_OFFSET);
+            if (count < 0 || HEADER_SIZE + count * ENTRY_SIZE > fileSize) {
+                throw new IllegalArgumentException("Il libro delle aperture " + path + " è troncato");
+            }
+            return new OpeningBook(channel, chunks, size, winLength, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public long getEntryCount() {
+        return count;
+    }
+
+    /* Predicato che verifica se il libro è relativo alla geometria della board passata */
+    public boolean supports(Board board) {
+        return board.getSize() == size && board.getWinLength() == winLength;
+    }
+
+    /**
+     * Cerca la posizione nel libro
+     * @param board Board con la posizione da cercare, relativa alla stessa geometria del libro
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Voce della posizione, con le mosse riportate nel riferimento della board, oppure null se la posizione non è presente
+     * @throws IllegalArgumentException se la board ha una geometria diversa da quella del libro
+     */
+    public Entry probe(Board board, Symbol toMove) {
+        if (!supports(board)) {
+            throw new IllegalArgumentException("Il libro è relativo alla griglia " + size + "x" + size + " con allineamento " + winLength);
+        }
+
+        long index = find(board.getCanonicalHash(toMove));
+        if (index < 0) {
+            return null;
+        }
+
+        long data = getLong(HEADER_SIZE + index * ENTRY_SIZE + 8);
+        int symmetry = board.getCanonicalSymmetry(toMove);
+        int moveCount = (int) ((data >>> 3) & 3);
+        List<Move> moves = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            int canonical = (int) ((data >>> (16 + 16 * i)) & 0xFFFF);
+            if (canonical >= board.getCellCount()) {
+                continue;   // voce incoerente (collisione dell'hash o file danneggiato)
+            }
+            int cell = zobrist.inverseCell(symmetry, canonical);
+            if (board.isCellEmpty(cell)) {
+                moves.add(Move.ofCell(cell, size, toMove));
+            }
+        }
+        return new Entry((int) (data & 3) - 1, (data & 4) != 0, moves);
+    }
+
+    /**
+     * Metodo di ausilio per i bot che consultano il libro prima di cercare la mossa, in tempo logaritmico nel numero di voci e senza
+     * toccare la board
+     * @param board Board che mantiene lo stato attuale della partita
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Una delle migliori mosse del libro (scelta in modo randomico tra quelle a pari merito), oppure null se il libro è relativo
+     *         ad un'altra griglia, la partita è conclusa o la posizione non è presente
+     */
+    public Move pickMove(Board board, Symbol toMove) {
+        if (!supports(board) || board.getStatus() != BoardStatus.ONGOING) {
+            return null;
+        }
+        Entry entry = probe(board, toMove);
+        if (entry == null || entry.getMoves().isEmpty()) {
+            return null;
+        }
+        List<Move> moves = entry.getMoves();
+        return moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+    }
+
+    /* Indice della voce con l'hash passato, -1 se assente: ricerca binaria sull'ordine senza segno degli hash */
+    private long find(long hash) {
+        long low = 0;
+        long high = count - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int cmp = Long.compareUnsigned(getLong(HEADER_SIZE + mid * ENTRY_SIZE), hash);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long getLong(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();    // le mappature restano valide fino a che i blocchi non vengono raccolti dal GC
+    }
+
+    /* Voce del libro: valore della posizione per il giocatore che deve muovere e sue migliori mosse */
+    public static final class Entry {
+        private final int value;
+        private final boolean exact;
+        private final List<Move> moves;
+
+        Entry(int value, boolean exact, List<Move> moves) {
+            this.value = value;
+            this.exact = exact;
+            this.moves = List.copyOf(moves);
+        }
+
+        /* PerfectPlayTable.WIN, DRAW oppure LOSS */
+        public int getValue() {
+            return value;
+        }
+
+        /* Vero se il valore è dimostrato, falso se è una stima */
+        public boolean isExact() {
+            return exact;
+        }
+
+        /* Migliori mosse, a pari merito tra loro (vuota se la voce non è coerente con la posizione) */
+        public List<Move> getMoves() {
+            return moves;
+        }
+
+        @Override
+        public String toString() {
+            String result = (value == PerfectPlayTable.WIN) ? "vittoria" : (value == PerfectPlayTable.LOSS) ? "sconfitta" : "pareggio";
+            return result + (exact ? "" : " (stima)") + ", mosse " + moves;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+import com.brux.tris.service.GameLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/* Costruzione offline di un OpeningBook per una geometria della griglia. Le voci vengono raccolte in memoria (una per posizione canonica)
+*  a partire da ricerche su tutte le aperture fino ad un certo numero di mosse, da partite registrate in un GameLog o inserite a mano, e
+*  infine scritte su file ordinate per hash. Una voce esatta non viene mai sostituita da una stimata; negli altri casi vale l'ultima
+*  inserita. Non è thread-safe, a parte la ricerca che parallelizza internamente */
+public final class OpeningBookBuilder {
+
+    /* Capacità della tabella delle trasposizioni condivisa dai thread della ricerca */
+    private static final int TABLE_CAPACITY = 1 << 22;
+
+    private final int size;
+    private final int winLength;
+    private final Zobrist zobrist;
+
+    /* Voci raccolte: hash canonico -> dato codificato come nel file */
+    private final Map<Long, Long> entries = new HashMap<>();
+
+    /**
+     * @param size Dimensione della griglia
+     * @param winLength Lunghezza dell'allineamento vincente
+     * @throws IllegalArgumentException se la geometria non è valida o la griglia è troppo grande per il formato del file
+     */
+    public OpeningBookBuilder(int size, int winLength) {
+        if (size < 1 || size > 127 || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Griglia non valida: " + size + "x" + size + ", allineamento " + winLength);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.zobrist = Zobrist.of(size);
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Inserisce (o sostituisce) la voce di una posizione
+     * @param board Posizione, relativa alla geometria del libro
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @param bestMoves Migliori mosse a pari merito, di cui vengono salvate le prime OpeningBook.MAX_MOVES
+     * @param value PerfectPlayTable.WIN, DRAW oppure LOSS per il giocatore che deve muovere
+     * @param exact Vero se il valore è dimostrato
+     * @return Vero se la voce è stata salvata, falso se ne era già presente una esatta e questa non lo è
+     * @throws IllegalArgumentException se la geometria della board è diversa o il valore non è valido
+     */
+    public boolean put(Board board, Symbol toMove, List<Move> bestMoves, int value, boolean exact) {
+        if (board.getSize() != size || board.getWinLength() != winLength) {
+            throw new IllegalArgumentException("Il libro è relativo alla griglia " + size + "x" + size + " con allineamento " + winLength);
+        }
+        if (value < PerfectPlayTable.LOSS || value > PerfectPlayTable.WIN) {
+            throw new IllegalArgumentException("Valore non valido: " + value);
+        }
+
+        long hash = board.getCanonicalHash(toMove);
+        Long previous = entries.get(hash);
+        if (previous != null && (previous & 4) != 0 && !exact) {
+            return false;
+        }
+
+        int symmetry = board.getCanonicalSymmetry(toMove);
+        int moveCount = Math.min(bestMoves.size(), OpeningBook.MAX_MOVES);
+        long data = (value + 1) | (exact ? 4 : 0) | ((long) moveCount << 3);
+        for (int i = 0; i < moveCount; i++) {
+            Move move = bestMoves.get(i);
+            long canonical = zobrist.transformCell(symmetry, move.getRow() * size + move.getCol());
+            data |= canonical << (16 + 16 * i);
+        }
+        entries.put(hash, data);
+        return true;
+    }
+
+    /**
+     * Aggiunge le voci di tutte le posizioni raggiungibili con al più plies mosse dalla board vuota (partendo con X), ciascuna cercata da
+     * AlphaBetaSearch entro il budget passato. Le posizioni simmetriche vengono cercate una volta sola, e le ricerche sono distribuite su
+     * threads thread che condividono la stessa tabella delle trasposizioni. Il valore è esatto se la ricerca ha deciso la partita o ne ha
+     * raggiunto la fine, altrimenti è una stima (pareggio se la ricerca non ha trovato vittorie entro l'orizzonte).
+     * @param plies Numero massimo di mosse già giocate nelle posizioni del libro
+     * @param budget Budget di ciascuna ricerca (illimitato per ricerche esatte, praticabili solo su griglie piccole)
+     * @param threads Numero di thread della ricerca
+     * @return Numero di voci salvate
+     * @throws IllegalArgumentException se plies è negativo o threads minore di 1
+     */
+    public int addSearched(int plies, SearchBudget budget, int threads) {
+        if (plies < 0 || threads < 1) {
+            throw new IllegalArgumentException("Parametri non validi: mosse " + plies + ", thread " + threads);
+        }
+
+        List<Board> positions = new ArrayList<>();
+        collectPositions(new Board(size, winLength), Symbol.X, plies, new HashSet<>(), positions);
+
+        TranspositionTable table = new TranspositionTable(TABLE_CAPACITY);
+        ThreadLocal<AlphaBetaSearch> searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(table));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int saved = 0;
+        try {
+            List<Future<SearchedPosition>> futures = new ArrayList<>(positions.size());
+            for (Board position : positions) {
+                futures.add(pool.submit(() -> searchPosition(searches.get(), position, budget)));
+            }
+            for (Future<SearchedPosition> future : futures) {
+                SearchedPosition result = future.get();
+                if (put(result.board, result.toMove, result.bestMoves, result.value, result.exact)) {
+                    saved++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Costruzione del libro interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante la ricerca", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return saved;
+    }
+
+    /**
+     * Aggiunge le voci delle posizioni incontrate nelle prime plies mosse delle partite registrate: per ogni posizione si sceglie la mossa
+     * dal miglior risultato medio per chi l'ha giocata, tra quelle giocate almeno minGames volte. Il valore è la stima (mai esatta)
+     * ricavata da tale risultato medio.
+     * @param log Registro delle partite, relativo alla geometria del libro
+     * @param plies Numero massimo di mosse già giocate nelle posizioni del libro
+     * @param minGames Numero minimo di partite in cui una mossa deve essere stata giocata per essere presa in considerazione
+     * @return Numero di voci salvate
+     * @throws IllegalArgumentException se il registro è relativo ad un'altra griglia
+     */
+    public int addRecorded(GameLog log, int plies, int minGames) {
+        if (log.getSize() != size || log.getWinLength() != winLength) {
+            throw new IllegalArgumentException("Il registro è relativo ad un'altra griglia");
+        }
+
+        /* Per ogni posizione canonica: mossa canonica -> {partite, somma dei risultati per chi l'ha giocata (+1, 0, -1)} */
+        Map<Long, Map<Integer, long[]>> stats = new HashMap<>();
+        Map<Long, Board> samples = new HashMap<>();
+        Map<Long, Symbol> movers = new HashMap<>();
+
+        Board board = new Board(size, winLength);
+        GameLog.Cursor cursor = log.cursor();
+        while (cursor.next()) {
+            board.reset();
+            BoardStatus result = cursor.getResult();
+            int moves = Math.min(plies, cursor.getMoveCount());
+            for (int i = 0; i < moves; i++) {
+                int cell = cursor.getMove(i);
+                Symbol mover = cursor.getMover(i);
+                long hash = board.getCanonicalHash(mover);
+                int canonical = zobrist.transformCell(board.getCanonicalSymmetry(mover), cell);
+                int outcome = (result == BoardStatus.DRAW) ? 0 : ((result == BoardStatus.WIN_X) == (mover == Symbol.X)) ? 1 : -1;
+
+                long[] counts = stats.computeIfAbsent(hash, h -> new HashMap<>()).computeIfAbsent(canonical, c -> new long[2]);
+                counts[0]++;
+                counts[1] += outcome;
+                if (!samples.containsKey(hash)) {
+                    samples.put(hash, new Board(board));
+                    movers.put(hash, mover);
+                }
+                board.applyMove(cell, mover);
+            }
+        }
+
+        int saved = 0;
+        for (Map.Entry<Long, Map<Integer, long[]>> position : stats.entrySet()) {
+            Board sample = samples.get(position.getKey());
+            Symbol mover = movers.get(position.getKey());
+            int symmetry = sample.getCanonicalSymmetry(mover);
+
+            List<Move> bestMoves = new ArrayList<>();
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+                long[] counts = move.getValue();
+                if (counts[0] < minGames) {
+                    continue;
+                }
+                double score = (double) counts[1] / counts[0];
+                Move actual = Move.ofCell(zobrist.inverseCell(symmetry, move.getKey()), size, mover);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMoves.clear();
+                    bestMoves.add(actual);
+                } else if (score == bestScore) {
+                    bestMoves.add(actual);
+                }
+            }
+            if (bestMoves.isEmpty()) {
+                continue;
+            }
+
+            int value = (bestScore > 1.0 / 3) ? PerfectPlayTable.WIN : (bestScore < -1.0 / 3) ? PerfectPlayTable.LOSS : PerfectPlayTable.DRAW;
+            if (put(sample, mover, bestMoves, value, false)) {
+                saved++;
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Scrive il libro al percorso passato, sostituendo un eventuale file esistente
+     * @return Numero di voci scritte
+     */
+    public long write(Path path) throws IOException {
+        /* Ordinamento senza segno: invertendo il bit di segno l'ordine con segno di Arrays.sort coincide con quello senza segno */
+        long[] hashes = new long[entries.size()];
+        int n = 0;
+        for (long hash : entries.keySet()) {
+            hashes[n++] = hash ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(hashes);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(0, OpeningBook.MAGIC);
+            buffer.putInt(8, OpeningBook.VERSION);
+            buffer.put(12, (byte) size);
+            buffer.put(13, (byte) winLength);
+            buffer.putLong(OpeningBook.COUNT_OFFSET, hashes.length);
+            buffer.position(OpeningBook.HEADER_SIZE);
+
+            for (long sortable : hashes) {
+                if (buffer.remaining() < OpeningBook.ENTRY_SIZE) {
+                    flush(channel, buffer);
+                }
+                long hash = sortable ^ Long.MIN_VALUE;
+                buffer.putLong(hash);
+                buffer.putLong(entries.get(hash));
+            }
+            flush(channel, buffer);
+        }
+        return hashes.length;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /* Visita in profondità delle posizioni non concluse con al più plies mosse, salvandone una copia per ogni posizione canonica */
+    private static void collectPositions(Board board, Symbol toMove, int plies, Set<Long> seen, List<Board> positions) {
+        if (board.getStatus() != BoardStatus.ONGOING || !seen.add(board.getCanonicalHash(toMove))) {
+            return;
+        }
+        positions.add(new Board(board));
+        if (board.getMoveCount() >= plies) {
+            return;
+        }
+
+        Symbol next = (toMove == Symbol.X) ? Symbol.O : Symbol.X;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.applyMove(cell, toMove)) {
+                collectPositions(board, next, plies, seen, positions);
+                board.undoMove();
+            }
+        }
+    }
+
+    /* Ricerca di una posizione, eseguita su uno dei thread del pool con la AlphaBetaSearch di quel thread */
+    private static SearchedPosition searchPosition(AlphaBetaSearch search, Board position, SearchBudget budget) {
+        Symbol toMove = (position.getMoveCount() % 2 == 0) ? Symbol.X : Symbol.O;
+        List<Move> bestMoves = search.findBestMoves(new Board(position), toMove, budget);
+        int score = search.getLastScore();
+        boolean decided = Math.abs(score) >= AlphaBetaSearch.WIN_SCORE;
+        boolean exact = budget.isUnlimited() || decided || search.getLastDepth() >= position.getEmptyCount();
+        int value = !decided ? PerfectPlayTable.DRAW : (score > 0) ? PerfectPlayTable.WIN : PerfectPlayTable.LOSS;
+        return new SearchedPosition(position, toMove, bestMoves, value, exact);
+    }
+
+    /* Risultato della ricerca di una posizione */
+    private static final class SearchedPosition {
+        final Board board;
+        final Symbol toMove;
+        final List<Move> bestMoves;
+        final int value;
+        final boolean exact;
+
+        SearchedPosition(Board board, Symbol toMove, List<Move> bestMoves, int value, boolean exact) {
+            this.board = board;
+            this.toMove = toMove;
+            this.bestMoves = bestMoves;
+            this.value = value;
+            this.exact = exact;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Ricerca esatta parallela basata su AlphaBetaSearch: le mosse della radice (ed eventualmente le risposte dell'avversario, fino a
+*  splitDepth livelli) vengono valutate come task indipendenti di un ForkJoinPool, ognuno su una propria copia della board. Tutti i task
+*  condividono la stessa tabella delle trasposizioni, così che una posizione risolta da un thread sia subito disponibile agli altri.
+*  Alla radice la prima mossa viene cercata da sola, così che il suo punteggio restringa la finestra di tutte le altre (come nella ricerca
+*  sequenziale) prima che queste vengano distribuite sui thread */
+public class ParallelSearch implements AutoCloseable {
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final int splitDepth;
+
+    /* Geometria dell'ultima board cercata: la tabella viene svuotata quando cambia */
+    private int size;
+    private int winLength;
+
+    /* Statistiche aggregate di tutti i task, azzerabili tramite resetStatistics */
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+
+    /* Costruttore con divisione del lavoro sulle sole mosse della radice */
+    public ParallelSearch(int threads) {
+        this(threads, 1, 1 << 20);
+    }
+
+    /**
+     * @param threads Numero di thread del pool
+     * @param splitDepth Livelli dell'albero le cui mosse diventano task separati (1 = solo radice)
+     * @param tableCapacity Capacità della tabella delle trasposizioni condivisa
+     * @throws IllegalArgumentException se threads o splitDepth sono minori di 1
+     */
+    public ParallelSearch(int threads, int splitDepth, int tableCapacity) {
+        if (threads < 1 || splitDepth < 1) {
+            throw new IllegalArgumentException("threads e splitDepth devono essere almeno 1");
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.table = new TranspositionTable(tableCapacity);
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Calcola tutte le mosse dal punteggio massimo per il giocatore che deve muovere, valutando in parallelo le mosse della radice. La
+     * board passata non viene modificata.
+     * @param board Board su cui cercare
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Lista delle mosse migliori, vuota se la partita è già conclusa
+     */
+    public List<Move> findBestMoves(Board board, Symbol toMove) {
+        List<Move> bestMoves = new ArrayList<>();
+        if (board.getStatus() != BoardStatus.ONGOING) {
+            return bestMoves;
+        }
+        prepare(board);
+
+        /* La prima mossa (la più centrale, dunque in genere la migliore) fornisce il limite con cui cercare tutte le altre */
+        Symbol opponent = opposite(toMove);
+        List<Move> moves = orderFromCenter(board.getAvailableMoves(toMove), board.getSize());
+        int[] scores = new int[moves.size()];
+        scores[0] = -pool.invoke(childTask(board, moves.get(0), opponent, splitDepth - 1, -INFINITY, INFINITY));
+
+        /* Un task per ognuna delle altre mosse, a sua volta suddiviso per i livelli successivi fino a splitDepth. Una mossa che non
+        *  raggiunge il punteggio della prima ottiene solo un limite superiore, sufficiente per scartarla */
+        int bound = scores[0] - 1;
+        List<SplitTask> tasks = new ArrayList<>(moves.size() - 1);
+        for (int i = 1; i < moves.size(); i++) {
+            tasks.add(childTask(board, moves.get(i), opponent, splitDepth - 1, -INFINITY, -bound));
+        }
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+        for (int i = 1; i < moves.size(); i++) {
+            scores[i] = -tasks.get(i - 1).join();
+        }
+
+        int bestScore = -INFINITY;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestMoves.clear();
+                bestMoves.add(moves.get(i));
+            } else if (scores[i] == bestScore) {
+                bestMoves.add(moves.get(i));
+            }
+        }
+        return bestMoves;
+    }
+
+    /* Valore esatto della posizione per il giocatore che deve muovere, calcolato in parallelo. La board passata non viene modificata */
+    public int evaluate(Board board, Symbol toMove) {
+        prepare(board);
+        return pool.invoke(new SplitTask(new Board(board), toMove, splitDepth, -INFINITY, INFINITY));
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /* Numero di nodi visitati da tutti i thread dall'ultimo azzeramento delle statistiche */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /* Numero di nodi risolti (o ristretti) grazie alla tabella delle trasposizioni condivisa */
+    public long getTableHits() {
+        return tableHits.sum();
+    }
+
+    public void resetStatistics() {
+        nodes.reset();
+        tableHits.reset();
+    }
+
+    /* Svuota la tabella delle trasposizioni condivisa */
+    public void clearTable() {
+        table.clear();
+    }
+
+    /* Termina i thread del pool */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /* L'hash canonico non codifica la lunghezza dell'allineamento, dunque al cambio di geometria la tabella va svuotata */
+    private void prepare(Board board) {
+        if (board.getSize() != size || board.getWinLength() != winLength) {
+            table.clear();
+            size = board.getSize();
+            winLength = board.getWinLength();
+        }
+    }
+
+    /* Task che valuta la posizione ottenuta effettuando move, dal punto di vista dell'avversario */
+    private SplitTask childTask(Board board, Move move, Symbol opponent, int depth, int alpha, int beta) {
+        Board copy = new Board(board);
+        copy.applyMove(move);
+        return new SplitTask(copy, opponent, depth, alpha, beta);
+    }
+
+    /* Ordina le mosse dalla più vicina alla più lontana dal centro della griglia */
+    private static List<Move> orderFromCenter(List<Move> moves, int size) {
+        double center = (size - 1) / 2.0;
+        moves.sort(Comparator.comparingDouble(m -> Math.hypot(m.getRow() - center, m.getCol() - center)));
+        return moves;
+    }
+
+    // Ritorna il simbolo opposto di quello passato per parametro
+    private static Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+
+    /* Task che calcola il valore di una posizione per toMove nella finestra (alpha, beta): se restano livelli da suddividere ogni mossa
+    *  diventa un sotto-task, altrimenti la posizione viene cercata sequenzialmente da un AlphaBetaSearch che usa la tabella condivisa */
+    private final class SplitTask extends RecursiveTask<Integer> {
+
+        private final Board board;      // copia di proprietà esclusiva del task
+        private final Symbol toMove;
+        private final int depth;
+        private final int alpha;
+        private final int beta;
+
+        SplitTask(Board board, Symbol toMove, int depth, int alpha, int beta) {
+            this.board = board;
+            this.toMove = toMove;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (depth == 0 || board.getStatus() != BoardStatus.ONGOING) {
+                AlphaBetaSearch search = new AlphaBetaSearch(table);
+                int score = search.evaluate(board, toMove, alpha, beta);
+                nodes.add(search.getNodes());
+                tableHits.add(search.getTableHits());
+                return score;
+            }
+
+            /* Come alla radice, il primo figlio viene cercato da solo e il suo punteggio restringe la finestra degli altri, che vengono
+            *  poi cercati contemporaneamente */
+            Symbol opponent = opposite(toMove);
+            List<Move> moves = orderFromCenter(board.getAvailableMoves(toMove), board.getSize());
+            int best = -childTask(board, moves.get(0), opponent, depth - 1, -beta, -alpha).invoke();
+            int narrowed = Math.max(alpha, best);
+            if (narrowed >= beta) {
+                return best;    // taglio: non serve cercare gli altri figli
+            }
+
+            List<SplitTask> children = new ArrayList<>(moves.size() - 1);
+            for (int i = 1; i < moves.size(); i++) {
+                children.add(childTask(board, moves.get(i), opponent, depth - 1, -beta, -narrowed));
+            }
+            invokeAll(children);
+
+            for (SplitTask child : children) {
+                best = Math.max(best, -child.join());
+            }
+            return best;
+        }
+    }
+}
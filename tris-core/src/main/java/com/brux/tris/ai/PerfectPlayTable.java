@@ -0,0 +1,151 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.util.Arrays;
+
+/* Tabella delle posizioni risolte del tris 3x3: per ogni posizione raggiungibile contiene il valore teorico (vittoria, pareggio, sconfitta)
+*  e l'insieme delle mosse migliori per il giocatore che deve muovere. Viene costruita una sola volta, al primo utilizzo, tramite
+*  AlphaBetaSearch e condivisa da tutti i bot. Le mosse migliori tengono conto della profondità: a parità di esito si preferiscono le
+*  vittorie più rapide e le sconfitte più lente */
+public final class PerfectPlayTable {
+
+    /* Valori teorici di una posizione dal punto di vista del giocatore che deve muovere */
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    private static final int CELLS = 9;
+    private static final int FULL_MASK = (1 << CELLS) - 1;
+    private static final int STATES = 19683;          // 3^9, ogni cella può essere libera, del giocatore di turno o dell'avversario
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+    /* Conversione in tempo costante da maschera a 9 bit alla sua rappresentazione in base 3 (cifra 1 per ogni bit acceso) */
+    private static final int[] TERNARY = new int[1 << CELLS];
+
+    static {
+        for (int mask = 0; mask <= FULL_MASK; mask++) {
+            int value = 0;
+            int power = 1;
+            for (int cell = 0; cell < CELLS; cell++) {
+                if ((mask & (1 << cell)) != 0) {
+                    value += power;
+                }
+                power *= 3;
+            }
+            TERNARY[mask] = value;
+        }
+    }
+
+    /* Istanza costruita pigramente e in modo thread-safe al primo accesso (initialization-on-demand holder) */
+    private static final class Holder {
+        private static final PerfectPlayTable INSTANCE = new PerfectPlayTable();
+    }
+
+    private final byte[] values = new byte[STATES];
+    private final short[] bestMoves = new short[STATES];
+    private int reachable;     // posizioni raggiungibili dalla board vuota, indipendentemente da chi inizia
+
+    /* Statistiche della ricerca effettuata per costruire la tabella */
+    private final long buildNodes;
+    private final long buildTableHits;
+
+    private PerfectPlayTable() {
+        Arrays.fill(values, UNSOLVED);
+
+        /* Dal momento che le posizioni sono indicizzate rispetto a chi deve muovere, visitare le partite in cui inizia X copre anche
+        *  quelle in cui inizia O */
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        solve(new Board(), Symbol.X, search);
+
+        buildNodes = search.getNodes();
+        buildTableHits = search.getTableHits();
+    }
+
+    public static PerfectPlayTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /* Predicato che verifica se la tabella è applicabile alla board passata, ossia se si tratta del tris classico 3x3 */
+    public static boolean supports(Board board) {
+        return board.getSize() == 3 && board.getWinLength() == 3;
+    }
+
+    /* Predicato che verifica se la posizione è presente nella tabella, ossia se è raggiungibile giocando regolarmente */
+    public boolean contains(int mine, int theirs) {
+        return values[indexOf(mine, theirs)] != UNSOLVED;
+    }
+
+    /**
+     * Valore teorico della posizione per il giocatore che deve muovere
+     * @param mine Maschera delle celle del giocatore che deve muovere (come ritornata da Board.getMask)
+     * @param theirs Maschera delle celle dell'avversario
+     * @return WIN, DRAW oppure LOSS
+     */
+    public int getValue(int mine, int theirs) {
+        return values[indexOf(mine, theirs)];
+    }
+
+    /**
+     * Insieme delle mosse ottimali per il giocatore che deve muovere
+     * @param mine Maschera delle celle del giocatore che deve muovere
+     * @param theirs Maschera delle celle dell'avversario
+     * @return Maschera delle celle ottimali, 0 se la posizione è già conclusa o non presente nella tabella
+     */
+    public int getBestMoves(int mine, int theirs) {
+        return bestMoves[indexOf(mine, theirs)];
+    }
+
+    /* Numero di posizioni distinte raggiungibili a partire dalla board vuota */
+    public int getReachablePositions() {
+        return reachable;
+    }
+
+    /* Nodi visitati da AlphaBetaSearch per costruire l'intera tabella */
+    public long getBuildNodes() {
+        return buildNodes;
+    }
+
+    /* Nodi risolti grazie alla tabella delle trasposizioni durante la costruzione */
+    public long getBuildTableHits() {
+        return buildTableHits;
+    }
+
+    private static int indexOf(int mine, int theirs) {
+        return TERNARY[mine] + 2 * TERNARY[theirs];
+    }
+
+    /* Visita delle posizioni raggiungibili a partire da quella passata: per ognuna si salvano il valore teorico e le mosse migliori
+    *  calcolate dal motore di ricerca, la cui tabella delle trasposizioni rende economiche le valutazioni ripetute */
+    private void solve(Board board, Symbol toMove, AlphaBetaSearch search) {
+        Symbol opponent = (toMove == Symbol.X) ? Symbol.O : Symbol.X;
+        int index = indexOf((int) board.getMask(toMove), (int) board.getMask(opponent));
+        if (values[index] != UNSOLVED) {
+            return;
+        }
+        reachable++;
+
+        if (board.getStatus() != BoardStatus.ONGOING) {
+            values[index] = (byte) ((board.getStatus() == BoardStatus.DRAW) ? DRAW : LOSS);
+            return;     // partita conclusa, nessuna mossa possibile
+        }
+
+        values[index] = (byte) Integer.signum(search.evaluate(board, toMove));
+
+        int moves = 0;
+        for (Move move : search.findBestMoves(board, toMove)) {
+            moves |= 1 << (move.getRow() * 3 + move.getCol());
+        }
+        bestMoves[index] = (short) moves;
+
+        /* Ricorsione sulle posizioni successive */
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                if (board.applyMove(r, c, toMove)) {
+                    solve(board, opponent, search);
+                    board.undoMove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+/* Tipologie di giocatore, utilizzate per identificare chi ha giocato una partita registrata senza doverne salvare l'istanza. Il codice
+*  numerico viene scritto nei file (si veda GameLog), dunque quelli esistenti non vanno mai cambiati: nuove tipologie si aggiungono in fondo */
+public enum PlayerKind {
+    OTHER(0),
+    HUMAN(1),
+    EASY(2),
+    INTERMEDIATE(3),
+    EXTREME(4),
+    MCTS(5),
+    TABLEBASE(6);
+
+    private static final PlayerKind[] BY_CODE = new PlayerKind[64];
+
+    static {
+        for (PlayerKind kind : values()) {
+            BY_CODE[kind.code] = kind;
+        }
+    }
+
+    private final int code;
+
+    PlayerKind(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /* Tipologia dato il codice salvato, OTHER se sconosciuto */
+    public static PlayerKind fromCode(int code) {
+        PlayerKind kind = (code >= 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+        return (kind != null) ? kind : OTHER;
+    }
+
+    /* Tipologia del giocatore passato */
+    public static PlayerKind of(Player player) {
+        if (player instanceof HumanPlayer) {
+            return HUMAN;
+        } else if (player instanceof EasyBot) {
+            return EASY;
+        } else if (player instanceof IntermediateBot) {
+            return INTERMEDIATE;
+        } else if (player instanceof ExtremeBot) {
+            return EXTREME;
+        } else if (player instanceof MctsBot) {
+            return MCTS;
+        } else if (player instanceof TablebaseBot) {
+            return TABLEBASE;
+        }
+        return OTHER;
+    }
+}
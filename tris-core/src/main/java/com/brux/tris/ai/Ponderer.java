@@ -0,0 +1,119 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Riflessione del bot durante il turno dell'avversario (pondering): mentre l'umano decide, si calcola in anticipo la risposta del bot a
+*  ciascuna delle sue possibili mosse e la si memorizza, indicizzata dall'hash di Zobrist della posizione risultante. Quando la mossa
+*  dell'umano arriva, la risposta è spesso già pronta. Il bot non viene mai usato da due thread contemporaneamente: ponder e makeMove
+*  vanno chiamati dallo stesso thread (o comunque in sequenza), mentre cancel può essere chiamato da qualsiasi thread */
+public final class Ponderer {
+
+    private final Player bot;
+    private final int maxPositions;
+
+    /* Risposte calcolate: hash della posizione (con il bot al tratto) -> mossa del bot */
+    private final Map<Long, Move> replies = new ConcurrentHashMap<>();
+
+    /* Incrementato da cancel: un ponder in corso se ne accorge tra una posizione e l'altra e termina */
+    private final AtomicLong generation = new AtomicLong();
+
+    /* Statistiche delle risposte servite dalla cache e di quelle calcolate sul momento */
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param bot Giocatore di cui precalcolare le risposte
+     * @param maxPositions Numero massimo di risposte memorizzate per ogni turno dell'avversario
+     * @throws IllegalArgumentException se maxPositions è minore di 1
+     */
+    public Ponderer(Player bot, int maxPositions) {
+        if (maxPositions < 1) {
+            throw new IllegalArgumentException("maxPositions deve essere almeno 1");
+        }
+        this.bot = bot;
+        this.maxPositions = maxPositions;
+    }
+
+    /**
+     * Calcola, finché non viene annullato o non si raggiunge il limite di posizioni, la risposta del bot ad ogni mossa dell'avversario nella
+     * posizione passata. Le risposte dei turni precedenti vengono scartate, non potendo più servire. Il metodo è bloccante, dunque va
+     * eseguito su un thread in background.
+     * @param position Posizione con l'avversario al tratto, viene usata per effettuare e annullare le mosse
+     * @param opponent Simbolo dell'avversario, che deve muovere
+     * @param budget Budget a disposizione del bot per ciascuna risposta
+     * @param generation Valore di getGeneration letto quando il ponder è stato programmato: un cancel successivo, anche se arrivato prima
+     *                   che il ponder iniziasse, lo fa terminare subito
+     */
+    public void ponder(Board position, Symbol opponent, SearchBudget budget, long generation) {
+        if (this.generation.get() != generation) {
+            return;     // annullato mentre era in coda
+        }
+        replies.clear();
+
+        for (int cell = 0; cell < position.getCellCount(); cell++) {
+            if (this.generation.get() != generation || Thread.currentThread().isInterrupted() || replies.size() >= maxPositions) {
+                return;
+            }
+            if (!position.applyMove(cell, opponent)) {
+                continue;   // cella occupata
+            }
+
+            if (position.getStatus() == BoardStatus.ONGOING) {
+                replies.put(position.getZobristHash(), bot.makeMove(position, budget));
+            }
+            position.undoMove();
+        }
+    }
+
+    /* Generazione corrente, da leggere quando si programma un ponder e da passargli */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /* Interrompe l'eventuale ponder in corso, che termina dopo aver completato la posizione che sta analizzando, e quelli programmati ma
+    *  non ancora iniziati */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Mossa del bot nella posizione passata: quella precalcolata, se presente e ancora valida, altrimenti calcolata sul momento
+     * @param board Posizione con il bot al tratto
+     * @param budget Budget a disposizione del bot qualora la risposta non sia già pronta
+     */
+    public Move makeMove(Board board, SearchBudget budget) {
+        Move reply = replies.get(board.getZobristHash());
+        if (reply != null && board.isCellEmpty(reply.getRow(), reply.getCol())) {
+            hits.incrementAndGet();
+            return reply;
+        }
+        misses.incrementAndGet();
+        return bot.makeMove(board, budget);
+    }
+
+    public Player getBot() {
+        return bot;
+    }
+
+    /* Scarta tutte le risposte memorizzate */
+    public void clear() {
+        replies.clear();
+    }
+
+    /* Numero di risposte attualmente memorizzate */
+    public int getCachedPositions() {
+        return replies.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
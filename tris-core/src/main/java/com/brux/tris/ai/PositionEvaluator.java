@@ -0,0 +1,56 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+/* Valutatore esatto e thread-safe del valore teorico delle posizioni (vittoria, pareggio, sconfitta), con la stessa forza di ExtremeBot.
+*  Sul tris 3x3 il valore viene letto da PerfectPlayTable; sulle altre griglie ogni thread usa una propria AlphaBetaSearch, ma tutte
+*  condividono la stessa tabella delle trasposizioni (come in ParallelSearch), così che le posizioni valutate da un thread non vengano
+*  ricalcolate dagli altri. Ogni istanza va usata su un'unica geometria della griglia */
+public final class PositionEvaluator {
+
+    private final TranspositionTable table;
+    private final ThreadLocal<AlphaBetaSearch> searches;
+
+    public PositionEvaluator() {
+        this(1 << 20);
+    }
+
+    /* Costruttore che permette di scegliere la capacità della tabella delle trasposizioni condivisa (inutilizzata sul 3x3) */
+    public PositionEvaluator(int tableCapacity) {
+        this.table = new TranspositionTable(tableCapacity);
+        this.searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(table));
+    }
+
+    /**
+     * Valore teorico della posizione per il giocatore che deve muovere. La board viene usata per effettuare e annullare le mosse, al ritorno
+     * si trova nello stesso stato in cui è stata ricevuta.
+     * @param board Board da valutare, anche già conclusa
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return PerfectPlayTable.WIN, DRAW oppure LOSS
+     */
+    public int value(Board board, Symbol toMove) {
+        BoardStatus status = board.getStatus();
+        if (status == BoardStatus.DRAW) {
+            return PerfectPlayTable.DRAW;
+        }
+        if (status != BoardStatus.ONGOING) {
+            // La partita è stata vinta da chi ha mosso per ultimo
+            return (status == BoardStatus.WIN_X) == (toMove == Symbol.X) ? PerfectPlayTable.WIN : PerfectPlayTable.LOSS;
+        }
+
+        if (PerfectPlayTable.supports(board)) {
+            PerfectPlayTable perfect = PerfectPlayTable.getInstance();
+            int mine = (int) board.getMask(toMove);
+            int theirs = (int) board.getMask((toMove == Symbol.X) ? Symbol.O : Symbol.X);
+            if (perfect.contains(mine, theirs)) {
+                return perfect.getValue(mine, theirs);
+            }
+        }
+        return Integer.signum(searches.get().evaluate(board, toMove));
+    }
+
+    /* Svuota la tabella delle trasposizioni condivisa */
+    public void clearTable() {
+        table.clear();
+    }
+}
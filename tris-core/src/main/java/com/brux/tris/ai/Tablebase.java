@@ -0,0 +1,153 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/* Tablebase in sola lettura, prodotta da TablebaseSolver: il valore esatto di ogni posizione di una griglia fino a 16 celle, per il
+*  giocatore che deve muovere. Il file (10 MB per il 4x4) viene mappato in memoria: ogni consultazione legge un solo byte per la posizione
+*  e uno per ciascuna cella libera, dunque le migliori mosse si ottengono in tempo costante senza alcuna ricerca. La lettura non modifica
+*  nulla, dunque la stessa tablebase può essere consultata da più thread e condivisa tra più bot.
+*
+*  Intestazione del file (TablebaseSolver.HEADER_SIZE byte): magic, versione, dimensione e allineamento della griglia, numero di stati.
+*  Seguono gli stati, quattro per byte a partire dai bit meno significativi, indicizzati come in TablebaseSolver */
+public final class Tablebase implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int size;
+    private final int winLength;
+    private final int[] ternary;
+
+    private Tablebase(FileChannel channel, MappedByteBuffer data, int size, int winLength) {
+        this.channel = channel;
+        this.data = data;
+        this.size = size;
+        this.winLength = winLength;
+        this.ternary = TablebaseSolver.ternaryTable(size * size);
+    }
+
+    /**
+     * Apre la tablebase al percorso passato, mappandola in memoria senza leggerne gli stati
+     * @throws IllegalArgumentException se il file non è una tablebase o è troncato
+     */
+    public static Tablebase open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < TablebaseSolver.HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Il file " + path + " non è una tablebase");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (data.getLong(0) != TablebaseSolver.MAGIC || data.getInt(8) != TablebaseSolver.VERSION) {
+                throw new IllegalArgumentException("Il file " + path + " non è una tablebase (o è di una versione non supportata)");
+            }
+            int size = data.get(12);
+            int winLength = data.get(13);
+            if (size < 1 || size * size > 16 || winLength < 1 || winLength > size) {
+                throw new IllegalArgumentException("La tablebase " + path + " ha una griglia non valida");
+            }
+            long states = data.getLong(TablebaseSolver.STATES_OFFSET);
+            if (states != TablebaseSolver.states(size * size) || TablebaseSolver.HEADER_SIZE + (states + 3) / 4 > fileSize) {
+                throw new IllegalArgumentException("La tablebase " + path + " è troncata");
+            }
+            return new Tablebase(channel, data, size, winLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /* Predicato che verifica se la tablebase è relativa alla geometria della board passata */
+    public boolean supports(Board board) {
+        return board.getSize() == size && board.getWinLength() == winLength;
+    }
+
+    /**
+     * Valore della posizione per il giocatore che deve muovere
+     * @param board Board con la posizione, relativa alla stessa geometria della tablebase
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return PerfectPlayTable.WIN, DRAW oppure LOSS
+     * @throws IllegalArgumentException se la geometria è diversa o la posizione non è raggiungibile con toMove di turno
+     */
+    public int getValue(Board board, Symbol toMove) {
+        checkSupported(board);
+        return getValue((int) board.getMask(toMove), (int) board.getMask(opposite(toMove)));
+    }
+
+    /**
+     * Variante di getValue sulle maschere delle celle dei due giocatori
+     * @param mine Maschera delle celle del giocatore che deve muovere
+     * @param theirs Maschera delle celle dell'avversario
+     * @throws IllegalArgumentException se la posizione non è raggiungibile
+     */
+    public int getValue(int mine, int theirs) {
+        int code = code(mine, theirs);
+        if (code == TablebaseSolver.INVALID) {
+            throw new IllegalArgumentException("Posizione non raggiungibile");
+        }
+        return code - 2;
+    }
+
+    /**
+     * Migliori mosse per il giocatore che deve muovere, ossia quelle che conservano il valore della posizione
+     * @param board Board con la posizione, relativa alla stessa geometria della tablebase
+     * @param toMove Simbolo del giocatore che deve muovere
+     * @return Maschera delle celle delle migliori mosse, 0 se la partita è già conclusa
+     * @throws IllegalArgumentException se la geometria è diversa o la posizione non è raggiungibile con toMove di turno
+     */
+    public int getBestMoves(Board board, Symbol toMove) {
+        checkSupported(board);
+        int mine = (int) board.getMask(toMove);
+        int theirs = (int) board.getMask(opposite(toMove));
+        int target = 4 - code(mine, theirs);     // codice che le mosse migliori lasciano all'avversario
+        if (target == 4) {
+            throw new IllegalArgumentException("Posizione non raggiungibile");
+        }
+
+        int best = 0;
+        for (int free = ~(mine | theirs) & ((1 << (size * size)) - 1); free != 0; free &= free - 1) {
+            int bit = free & -free;
+            if (code(theirs, mine | bit) == target) {
+                best |= bit;
+            }
+        }
+        return best;
+    }
+
+    /* Codice dello stato (si veda TablebaseSolver): due bit all'interno del byte che lo contiene */
+    private int code(int mine, int theirs) {
+        int state = ternary[mine] + 2 * ternary[theirs];
+        return (data.get(TablebaseSolver.HEADER_SIZE + (state >>> 2)) >>> ((state & 3) * 2)) & 3;
+    }
+
+    private void checkSupported(Board board) {
+        if (!supports(board)) {
+            throw new IllegalArgumentException("La tablebase è relativa alla griglia " + size + "x" + size + " con allineamento " + winLength);
+        }
+    }
+
+    private static Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();    // la mappatura resta valida fino a che il buffer non viene raccolto dal GC
+    }
+}
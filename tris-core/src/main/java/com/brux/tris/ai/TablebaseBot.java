@@ -0,0 +1,102 @@
+package com.brux.tris.ai;
+
+import com.brux.tris.model.*;
+
+import java.util.random.RandomGenerator;
+
+/* Bot a gioco perfetto sulle griglie coperte da una Tablebase (ad esempio il 4x4, dove ExtremeBot dovrebbe cercare esaustivamente
+*  milioni di posizioni ad ogni mossa): ogni mossa costa una lettura per cella libera del file mappato. Sulle altre griglie il bot gioca
+*  come un ExtremeBot */
+public class TablebaseBot extends BotPlayer {
+
+    private final RandomGenerator rnd = RandomGenerator.getDefault();
+
+    private final Tablebase tablebase;
+
+    /* Bot usato sulle griglie non coperte dalla tablebase */
+    private final ExtremeBot fallback;
+
+    /**
+     * @param symbol Simbolo del bot
+     * @param tablebase Tablebase da consultare, condivisibile tra più bot
+     */
+    public TablebaseBot(Symbol symbol, Tablebase tablebase) {
+        super(symbol);
+        this.tablebase = tablebase;
+        this.fallback = new ExtremeBot(symbol);
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    /* Libro delle aperture del bot di riserva, consultato solo sulle griglie non coperte dalla tablebase */
+    public void setOpeningBook(OpeningBook openingBook) {
+        fallback.setOpeningBook(openingBook);
+    }
+
+    public OpeningBook getOpeningBook() {
+        return fallback.getOpeningBook();
+    }
+
+    /**
+     * Metodo che sceglie una mossa ottimale consultando la tablebase: vince subito se può, altrimenti sceglie in modo randomico tra le
+     * mosse che conservano il valore della posizione. Nelle posizioni perse tutte le mosse si equivalgono, dunque si preferisce bloccare
+     * la vittoria immediata dell'avversario, così da costringerlo a dimostrarla
+     * @param board Board che mantiene lo stato attuale della partita
+     * @return Una delle mosse migliori per il bot
+     */
+    @Override
+    public Move makeMove(Board board) {
+        if (!tablebase.supports(board)) {
+            return fallback.makeMove(board);
+        }
+
+        int win = findWinningCell(board, getSymbol());
+        if (win >= 0) {
+            return Move.ofCell(win, board.getSize(), getSymbol());
+        }
+        if (tablebase.getValue(board, getSymbol()) == PerfectPlayTable.LOSS) {
+            int block = findWinningCell(board, opposite(getSymbol()));
+            if (block >= 0) {
+                return Move.ofCell(block, board.getSize(), getSymbol());
+            }
+        }
+
+        int bestMoves = tablebase.getBestMoves(board, getSymbol());
+        if (bestMoves == 0) {
+            throw new IllegalStateException("makeMove called on finished board");
+        }
+
+        // Scelta random tra le migliori mosse: si scartano i primi n bit accesi e si prende il successivo
+        for (int skip = rnd.nextInt(Integer.bitCount(bestMoves)); skip > 0; skip--) {
+            bestMoves &= bestMoves - 1;
+        }
+        return Move.ofCell(Integer.numberOfTrailingZeros(bestMoves), board.getSize(), getSymbol());
+    }
+
+    /* Le posizioni coperte dalla tablebase non richiedono ricerca, dunque il budget vale solo per le altre griglie */
+    @Override
+    public Move makeMove(Board board, SearchBudget budget) {
+        if (tablebase.supports(board)) {
+            return makeMove(board);
+        }
+        return fallback.makeMove(board, budget);
+    }
+
+    /* Nodi cercati dal bot di riserva, l'unico a effettuare ricerche */
+    @Override
+    public long getSearchNodes() {
+        return fallback.getSearchNodes();
+    }
+
+    @Override
+    public long getTableHits() {
+        return fallback.getTableHits();
+    }
+
+    // Ritorna il simbolo opposto di quello passato per parametro
+    private Symbol opposite(Symbol s) {
+        return (s == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+}
@@ -0,0 +1,300 @@
+package com.brux.tris.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/* Risolutore per analisi retrograda di tutte le posizioni di una griglia fino a 16 celle (es. 4x4 con allineamento 4, 3^16 = 43 milioni di
+*  stati): a differenza di ExtremeBot, che cerca ricorsivamente a partire dalla posizione corrente, qui si calcola una volta per tutte il
+*  valore di ogni stato, da scrivere su file e consultare poi tramite Tablebase.
+*
+*  Come in PerfectPlayTable gli stati sono indicizzati rispetto al giocatore che deve muovere, in base 3 (cifra 1 per le sue celle, 2 per
+*  quelle dell'avversario), così che la stessa tabella valga qualunque sia il simbolo che ha iniziato. Dal momento che ogni mossa aggiunge
+*  un simbolo, gli stati formano livelli per numero di celle occupate e le mosse portano sempre al livello successivo: si parte dalle
+*  griglie piene e si risale di livello in livello fino alla griglia vuota, e ogni stato si risolve guardando i soli successori, già
+*  risolti. Gli stati di un livello sono indipendenti tra loro, dunque vengono suddivisi tra i thread; il livello successivo parte solo al
+*  termine del precedente. Durante la risoluzione ogni stato occupa un byte (43 MB per il 4x4), sul file due bit */
+public final class TablebaseSolver {
+
+    /* Codici degli stati, scritti su file: posizione irraggiungibile (il giocatore di turno ha già allineato, l'avversario ha allineamenti
+    *  non completabili con una sola mossa, o i simboli sono in numero non valido), sconfitta, pareggio e vittoria per il giocatore che deve
+    *  muovere. Valore = codice - 2 per le posizioni valide */
+    static final byte INVALID = 0;
+    static final byte LOSS = 1;
+    static final byte DRAW = 2;
+    static final byte WIN = 3;
+
+    static final long MAGIC = 0x54524953_54420001L;     // "TRISTB" + versione
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int STATES_OFFSET = 16;
+
+    private static final int MAX_CELLS = 16;
+
+    private final int size;
+    private final int winLength;
+    private final int cells;
+    private final int fullMask;
+    private final int threads;
+
+    /* Conversione da maschera di celle alla sua rappresentazione in base 3, e maschere che contengono almeno un allineamento vincente */
+    private final int[] ternary;
+    private final boolean[] hasLine;
+
+    private byte[] values;
+    private final long[] counts = new long[4];
+    private long solveNanos;
+
+    /**
+     * @param size Dimensione della griglia
+     * @param winLength Lunghezza dell'allineamento vincente
+     * @param threads Numero di thread della risoluzione
+     * @throws IllegalArgumentException se la griglia supera le 16 celle o i parametri non sono validi
+     */
+    public TablebaseSolver(int size, int winLength, int threads) {
+        if (size < 1 || (long) size * size > MAX_CELLS || winLength < 1 || winLength > size || threads < 1) {
+            throw new IllegalArgumentException("Parametri non validi: griglia " + size + "x" + size + ", allineamento " + winLength
+                    + ", thread " + threads);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = size * size;
+        this.fullMask = (1 << cells) - 1;
+        this.threads = threads;
+        this.ternary = ternaryTable(cells);
+        this.hasLine = lineTable(size, winLength);
+    }
+
+    /* Risolve tutti gli stati; chiamate successive alla prima non fanno nulla */
+    public void solve() {
+        if (values != null) return;
+
+        long start = System.nanoTime();
+        byte[] solved = new byte[states(cells)];
+
+        /* Maschere delle celle occupate, raggruppate per numero di celle */
+        List<List<Integer>> layers = new ArrayList<>();
+        for (int n = 0; n <= cells; n++) {
+            layers.add(new ArrayList<>());
+        }
+        for (int occupied = 0; occupied <= fullMask; occupied++) {
+            layers.get(Integer.bitCount(occupied)).add(occupied);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int n = cells; n >= 0; n--) {
+                int[] masks = layers.get(n).stream().mapToInt(Integer::intValue).toArray();
+                int mine = n / 2;   // chi deve muovere ha un simbolo in meno dell'avversario, o tanti quanti se ha iniziato lui
+
+                /* Suddivisione del livello in blocchi, più dei thread così che il carico si bilanci */
+                int tasks = Math.min(masks.length, threads * 4);
+                List<Future<long[]>> futures = new ArrayList<>(tasks);
+                for (int t = 0; t < tasks; t++) {
+                    int from = (int) ((long) masks.length * t / tasks);
+                    int to = (int) ((long) masks.length * (t + 1) / tasks);
+                    futures.add(pool.submit(() -> solveRange(solved, masks, from, to, mine)));
+                }
+                for (Future<long[]> future : futures) {
+                    long[] local = future.get();
+                    for (int code = 0; code < counts.length; code++) {
+                        counts[code] += local[code];
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Risoluzione interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante la risoluzione", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        values = solved;
+        solveNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Valore di uno stato risolto, per il giocatore che deve muovere
+     * @param mine Maschera delle celle del giocatore che deve muovere
+     * @param theirs Maschera delle celle dell'avversario
+     * @return PerfectPlayTable.WIN, DRAW oppure LOSS
+     * @throws IllegalStateException se solve non è ancora stato chiamato
+     * @throws IllegalArgumentException se la posizione non è raggiungibile
+     */
+    public int getValue(int mine, int theirs) {
+        if (values == null) {
+            throw new IllegalStateException("Tablebase non ancora risolta");
+        }
+        byte code = values[ternary[mine] + 2 * ternary[theirs]];
+        if (code == INVALID) {
+            throw new IllegalArgumentException("Posizione non raggiungibile");
+        }
+        return code - 2;
+    }
+
+    /* Numero di stati (raggiungibili o meno) della tabella */
+    public long getStateCount() {
+        return states(cells);
+    }
+
+    /* Numero di posizioni raggiungibili con il valore passato (PerfectPlayTable.WIN, DRAW oppure LOSS) per chi deve muovere */
+    public long count(int value) {
+        return counts[value + 2];
+    }
+
+    /* Durata della risoluzione, in nanosecondi */
+    public long getSolveNanos() {
+        return solveNanos;
+    }
+
+    /**
+     * Scrive la tabella risolta al percorso passato (due bit per stato), sostituendo un eventuale file esistente
+     * @throws IllegalStateException se solve non è ancora stato chiamato
+     */
+    public void write(Path path) throws IOException {
+        if (values == null) {
+            throw new IllegalStateException("Tablebase non ancora risolta");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (values.length + 3) / 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, VERSION);
+        buffer.put(12, (byte) size);
+        buffer.put(13, (byte) winLength);
+        buffer.putLong(STATES_OFFSET, values.length);
+        for (int state = 0; state < values.length; state++) {
+            int offset = HEADER_SIZE + (state >>> 2);
+            buffer.put(offset, (byte) (buffer.get(offset) | (values[state] << ((state & 3) * 2))));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /* Risolve gli stati delle maschere masks[from, to) del livello corrente, in cui chi muove ha mine simboli. Blocchi diversi scrivono
+    *  stati diversi e leggono solo il livello successivo, già completo: non serve alcuna sincronizzazione oltre all'attesa dei Future */
+    private long[] solveRange(byte[] solved, int[] masks, int from, int to, int mine) {
+        long[] local = new long[4];
+        for (int i = from; i < to; i++) {
+            int occupied = masks[i];
+
+            /* Tutte le suddivisioni delle celle occupate tra i due giocatori, con mine celle per chi deve muovere */
+            for (int own = occupied; ; own = (own - 1) & occupied) {
+                if (Integer.bitCount(own) == mine) {
+                    int other = occupied ^ own;
+                    byte code = solveState(solved, own, other, occupied);
+                    solved[ternary[own] + 2 * ternary[other]] = code;
+                    local[code]++;
+                }
+                if (own == 0) break;
+            }
+        }
+        return local;
+    }
+
+    /* Valore di uno stato a partire da quelli, già risolti, dei suoi successori. Una posizione senza allineamenti è sempre raggiungibile
+    *  (basta giocarne i simboli in un ordine qualsiasi); con un allineamento lo è solo se è dell'avversario e l'ha completato con la sua
+    *  ultima mossa, ossia se togliendo uno dei suoi simboli non resta alcun allineamento */
+    private byte solveState(byte[] solved, int own, int other, int occupied) {
+        if (hasLine[own]) {
+            return INVALID;     // la partita sarebbe finita prima che l'avversario muovesse
+        }
+        if (hasLine[other]) {
+            for (int stones = other; stones != 0; stones &= stones - 1) {
+                if (!hasLine[other & ~(stones & -stones)]) {
+                    return LOSS;        // l'avversario ha appena allineato
+                }
+            }
+            return INVALID;     // nessuna ultima mossa dell'avversario può aver completato i suoi allineamenti
+        }
+        if (occupied == fullMask) {
+            return DRAW;
+        }
+
+        byte best = LOSS;
+        for (int free = ~occupied & fullMask; free != 0; free &= free - 1) {
+            int bit = free & -free;
+            byte child = solved[ternary[other] + 2 * ternary[own | bit]];    // dal punto di vista dell'avversario
+            if (child == LOSS) {
+                return WIN;
+            }
+            if (child == DRAW) {
+                best = DRAW;
+            }
+        }
+        return best;
+    }
+
+    static int states(int cells) {
+        int states = 1;
+        for (int i = 0; i < cells; i++) {
+            states *= 3;
+        }
+        return states;
+    }
+
+    /* Per ogni maschera di cells bit, la sua rappresentazione in base 3 (cifra 1 per ogni bit acceso) */
+    static int[] ternaryTable(int cells) {
+        int[] table = new int[1 << cells];
+        for (int mask = 0; mask < table.length; mask++) {
+            int value = 0;
+            int power = 1;
+            for (int cell = 0; cell < cells; cell++) {
+                if ((mask & (1 << cell)) != 0) {
+                    value += power;
+                }
+                power *= 3;
+            }
+            table[mask] = value;
+        }
+        return table;
+    }
+
+    /* Per ogni maschera di celle, se contiene almeno un allineamento di winLength celle consecutive */
+    private static boolean[] lineTable(int size, int winLength) {
+        List<Integer> lines = new ArrayList<>();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] dir : directions) {
+                    int endRow = row + dir[0] * (winLength - 1);
+                    int endCol = col + dir[1] * (winLength - 1);
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    int line = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        line |= 1 << ((row + dir[0] * i) * size + col + dir[1] * i);
+                    }
+                    lines.add(line);
+                }
+            }
+        }
+
+        boolean[] table = new boolean[1 << (size * size)];
+        for (int mask = 0; mask < table.length; mask++) {
+            for (int line : lines) {
+                if ((mask & line) == line) {
+                    table[mask] = true;
+                    break;
+                }
+            }
+        }
+        return table;
+    }
+}
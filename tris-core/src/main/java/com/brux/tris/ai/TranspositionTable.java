@@ -0,0 +1,75 @@
+package com.brux.tris.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Tabella delle trasposizioni a indirizzamento diretto con sostituzione sempre: ogni chiave viene associata ad uno slot tramite hashing e
+*  un nuovo inserimento sovrascrive quanto presente. I dati sono mantenuti in array primitivi, dunque senza alcuna allocazione per entry.
+*  La tabella può essere condivisa tra più thread senza lock: in ogni slot si salva la chiave combinata in XOR con il dato, così che una
+*  coppia scritta a metà da due thread concorrenti non superi il controllo in lettura e venga semplicemente trattata come assente */
+final class TranspositionTable {
+
+    /* Tipo di valore memorizzato: esatto, limite inferiore (taglio beta) o limite superiore (nessuna mossa ha superato alpha) */
+    static final int EXACT = 0;
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+
+    /* Valore ritornato da probe quando la chiave non è presente */
+    static final int MISSING = Integer.MIN_VALUE;
+
+    /* Profondità (mosse rimanenti) con cui è stato cercato un nodo: un valore è riutilizzabile da ricerche di profondità uguale o minore.
+    *  Una ricerca che arriva alla fine della partita memorizza come profondità il numero di celle libere, dunque vale per qualsiasi ricerca */
+    static final int MAX_DEPTH = (1 << 9) - 1;
+
+    private static final int VALID = 1 << 2;   // bit che distingue gli slot occupati da quelli vuoti
+    private static final int DEPTH_SHIFT = 3;
+    private static final int SCORE_SHIFT = 12;
+
+    private final AtomicLongArray checks;      // chiave ^ dato
+    private final AtomicLongArray data;
+    private final int shift;
+
+    /* La capacità viene arrotondata alla potenza di 2 superiore */
+    TranspositionTable(int capacity) {
+        int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(Math.max(1, capacity - 1)));
+        this.checks = new AtomicLongArray(1 << bits);
+        this.data = new AtomicLongArray(1 << bits);
+        this.shift = 64 - bits;
+    }
+
+    /* Ritorna il dato impacchettato (da decodificare con scoreOf e flagOf) oppure MISSING */
+    int probe(long key) {
+        int slot = slotOf(key);
+        long entry = data.getOpaque(slot);
+        return ((entry & VALID) != 0 && (checks.getOpaque(slot) ^ entry) == key) ? (int) entry : MISSING;
+    }
+
+    void store(long key, int score, int flag, int depth) {
+        int slot = slotOf(key);
+        long entry = ((long) score << SCORE_SHIFT) | ((long) depth << DEPTH_SHIFT) | VALID | flag;
+        checks.setOpaque(slot, key ^ entry);
+        data.setOpaque(slot, entry);
+    }
+
+    void clear() {
+        for (int i = 0; i < data.length(); i++) {
+            data.setOpaque(i, 0L);
+        }
+    }
+
+    static int scoreOf(int entry) {
+        return entry >> SCORE_SHIFT;
+    }
+
+    static int depthOf(int entry) {
+        return (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    static int flagOf(int entry) {
+        return entry & 3;
+    }
+
+    /* Hashing moltiplicativo di Fibonacci: i bit alti del prodotto sono ben distribuiti anche per chiavi piccole e consecutive */
+    private int slotOf(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
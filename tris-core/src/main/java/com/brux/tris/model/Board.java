@@ -0,0 +1,441 @@
+package com.brux.tris.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Griglia NxN relativa ai singoli round, in cui vince chi allinea per primo winLength simboli in orizzontale, verticale o diagonale. Il tris
+*  classico è il caso particolare 3x3 con winLength 3, utilizzato dal costruttore di default */
+public class Board {
+
+    public static final int DEFAULT_SIZE = 3;
+    public static final int DEFAULT_WIN_LENGTH = 3;
+
+    /* Direzioni lungo le quali si può completare una linea: orizzontale, verticale, diagonale e antidiagonale */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /* Lo stato della board viene memorizzato attraverso due insiemi di bit, uno per ciascun simbolo, suddivisi in parole da 64 bit: il bit
+    *  di indice (row * size + col) è acceso se la cella corrispondente è occupata da quel simbolo. Inoltre la Board mantiene quello che è lo
+    *  stato della partita attuale giocata sulla board in modo automatico a seguito di ogni mossa effettuata su di essa */
+    private final int size;
+    private final int winLength;
+    private final int cellCount;
+    private final long[] bitsX;
+    private final long[] bitsO;
+    private BoardStatus status;
+
+    /* Pila delle mosse effettuate: per ogni mossa si ricordano l'indice della cella occupata e lo stato della board precedente ad essa,
+    *  così che undoMove possa ripristinare la situazione in tempo costante senza ricalcolare nulla */
+    private final int[] moveStack;
+    private final BoardStatus[] statusStack;
+    private int moveCount;
+
+    /* Hash di Zobrist delle celle di ciascun simbolo, uno per ognuna delle 8 simmetrie della griglia (indice 0 = griglia non trasformata),
+    *  aggiornati con un XOR ad ogni mossa effettuata o annullata */
+    private final Zobrist zobrist;
+    private final long[] hashX;
+    private final long[] hashO;
+
+    public Board() {
+        this(DEFAULT_SIZE, DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Crea una board vuota di dimensione arbitraria
+     * @param size Numero di righe (e di colonne) della griglia
+     * @param winLength Numero di simboli consecutivi necessari per vincere
+     * @throws IllegalArgumentException se winLength non è compreso tra 1 e size, o se il numero di celle non è rappresentabile con un int
+     */
+    public Board(int size, int winLength) {
+        if (size < 1 || (long) size * size > Integer.MAX_VALUE || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Board non valida: " + size + "x" + size + ", allineamento " + winLength);
+        }
+
+        this.size = size;
+        this.winLength = winLength;
+        this.cellCount = size * size;
+        this.bitsX = new long[(cellCount + 63) >>> 6];
+        this.bitsO = new long[bitsX.length];
+        this.moveStack = new int[cellCount];
+        this.statusStack = new BoardStatus[cellCount];
+        this.zobrist = Zobrist.of(size);
+        this.hashX = new long[Zobrist.SYMMETRIES];
+        this.hashO = new long[Zobrist.SYMMETRIES];
+        reset();
+    }
+
+    /* Costruttore di copia: duplica lo stato di un'altra board (mosse comprese) senza rigiocarne le mosse */
+    public Board(Board other) {
+        this.size = other.size;
+        this.winLength = other.winLength;
+        this.cellCount = other.cellCount;
+        this.bitsX = other.bitsX.clone();
+        this.bitsO = other.bitsO.clone();
+        this.moveStack = other.moveStack.clone();
+        this.statusStack = other.statusStack.clone();
+        this.moveCount = other.moveCount;
+        this.status = other.status;
+        this.zobrist = other.zobrist;
+        this.hashX = other.hashX.clone();
+        this.hashO = other.hashO.clone();
+    }
+
+    public BoardStatus getStatus() {
+        return status;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /* Metodo che setta tutti gli elementi della board a EMPTY (inizio partita) */
+    public void reset() {
+        for (int w = 0; w < bitsX.length; w++) {
+            bitsX[w] = 0L;
+            bitsO[w] = 0L;
+        }
+        for (int t = 0; t < Zobrist.SYMMETRIES; t++) {
+            hashX[t] = 0L;
+            hashO[t] = 0L;
+        }
+        moveCount = 0;
+        status = BoardStatus.ONGOING;
+    }
+
+    /* Numero di mosse attualmente presenti sulla board */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /* Indice (row * size + col) della cella occupata dall'i-esima mossa della partita, 0 è la prima */
+    public int getMoveAt(int i) {
+        if (i < 0 || i >= moveCount) {
+            throw new IndexOutOfBoundsException("Mossa " + i + " non presente, mosse effettuate: " + moveCount);
+        }
+        return moveStack[i];
+    }
+
+    /**
+     * Maschera di bit delle celle occupate dal simbolo passato (bit di indice row * size + col). Per EMPTY ritorna le celle libere.
+     * @throws IllegalStateException se la board ha più di 64 celle e non può essere rappresentata da un singolo long
+     */
+    public long getMask(Symbol symbol) {
+        if (cellCount > 64) {
+            throw new IllegalStateException("getMask disponibile solo per board fino a 64 celle");
+        }
+        if (symbol == Symbol.X) {
+            return bitsX[0];
+        }
+        if (symbol == Symbol.O) {
+            return bitsO[0];
+        }
+        long full = (cellCount == 64) ? -1L : (1L << cellCount) - 1;
+        return ~(bitsX[0] | bitsO[0]) & full;   // celle libere
+    }
+
+    /* Metodo che ritorna il simbolo contenuto nella cella cercata */
+    public Symbol getCell(int row, int col) {
+        return symbolAt(indexOf(row, col));
+    }
+
+    /* Predicato che verifica se una delle celle della griglia sia utilizzabile da parte di un giocatore per una mossa */
+    public boolean isCellEmpty(int row, int col) {
+        return isEmpty(indexOf(row, col));
+    }
+
+    /* Predicato equivalente a isCellEmpty, a partire dall'indice di cella (row * size + col) */
+    public boolean isCellEmpty(int cell) {
+        if (cell < 0 || cell >= cellCount) {
+            throw new IndexOutOfBoundsException("Cella fuori dalla griglia: " + cell);
+        }
+        return isEmpty(cell);
+    }
+
+    /* Metodo che inserisce la mossa dentro alla griglia e aggiorna lo stato della board, infine ritorna true se valida, altrimenti false */
+    public boolean applyMove(Move move) {
+        return applyMove(move.getRow(), move.getCol(), move.getSymbol());
+    }
+
+    /* Variante di applyMove che non richiede la creazione di un oggetto Move, pensata per gli algoritmi di ricerca dei bot che effettuano
+    *  e annullano moltissime mosse sulla stessa board */
+    public boolean applyMove(int row, int col, Symbol symbol) {
+        int index = indexOf(row, col);
+
+        if (!isEmpty(index)) {
+            return false;   // posizione già occupata
+        }
+
+        /* Salvataggio della mossa nei bit del simbolo che la effettua e nella pila delle mosse */
+        long[] bits = (symbol == Symbol.X) ? bitsX : bitsO;
+        bits[index >>> 6] |= 1L << index;
+        toggleHash((symbol == Symbol.X) ? hashX : hashO, index);
+        moveStack[moveCount] = index;
+        statusStack[moveCount] = status;
+        moveCount++;
+
+        recomputeStatus(row, col, symbol);  // aggiornamneto dello stato della board
+
+        return true;
+    }
+
+    /* Variante di applyMove basata sull'indice di cella (row * size + col), come quelli prodotti da fillAvailableMoves */
+    public boolean applyMove(int cell, Symbol symbol) {
+        return applyMove(cell / size, cell % size, symbol);
+    }
+
+    /**
+     * Predicato che verifica, senza modificare la board, se occupare la cella passata con il simbolo passato completerebbe una linea
+     * vincente. Il costo è lo stesso del controllo effettuato da applyMove, senza però dover effettuare e annullare la mossa.
+     * @param cell Indice (row * size + col) della cella
+     * @param symbol Simbolo del giocatore che effettuerebbe la mossa
+     * @return true se la cella è libera e la mossa sarebbe vincente
+     */
+    public boolean wouldWin(int cell, Symbol symbol) {
+        if (!isCellEmpty(cell)) {
+            return false;
+        }
+
+        long[] bits = (symbol == Symbol.X) ? bitsX : bitsO;
+        int row = cell / size;
+        int col = cell % size;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1 + countRun(bits, row, col, dir[0], dir[1], winLength - 1)
+                    + countRun(bits, row, col, -dir[0], -dir[1], winLength - 1);
+            if (count >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Annulla l'ultima mossa effettuata sulla board, ripristinando sia la cella che lo stato precedente in tempo costante.
+     * Permette ai bot di esplorare le mosse su un'unica board mutabile, senza doverne creare delle copie.
+     * @throws IllegalStateException se sulla board non è presente alcuna mossa
+     */
+    public void undoMove() {
+        if (moveCount == 0) {
+            throw new IllegalStateException("Nessuna mossa da annullare: la board è vuota");
+        }
+
+        moveCount--;
+        int index = moveStack[moveCount];
+        toggleHash(((bitsX[index >>> 6] & (1L << index)) != 0) ? hashX : hashO, index);
+        long clear = ~(1L << index);
+        bitsX[index >>> 6] &= clear;
+        bitsO[index >>> 6] &= clear;
+        status = statusStack[moveCount];
+        statusStack[moveCount] = null;
+    }
+
+    /**
+     * Hash di Zobrist a 64 bit della posizione, aggiornato in tempo costante ad ogni mossa. Posizioni uguali hanno lo stesso hash
+     * (indipendentemente dall'ordine delle mosse), posizioni diverse lo condividono con probabilità trascurabile.
+     */
+    public long getZobristHash() {
+        return Zobrist.combine(hashX[0], hashO[0]);
+    }
+
+    /* Hash canonico della posizione: identico per tutte le posizioni ottenibili l'una dall'altra tramite una delle 8 simmetrie */
+    public long getCanonicalHash() {
+        return canonicalHash(hashX, hashO);
+    }
+
+    /**
+     * Hash canonico relativo al giocatore che deve muovere: oltre alle simmetrie è invariante anche per lo scambio dei simboli, così che una
+     * posizione con X al tratto coincida con quella a simboli invertiti con O al tratto. È la chiave adatta alle tabelle delle trasposizioni.
+     * @param toMove Simbolo del giocatore che deve muovere
+     */
+    public long getCanonicalHash(Symbol toMove) {
+        return (toMove == Symbol.O) ? canonicalHash(hashO, hashX) : canonicalHash(hashX, hashO);
+    }
+
+    /**
+     * Simmetria che porta la posizione nella sua forma canonica, ossia quella il cui hash è getCanonicalHash(). Tramite
+     * Zobrist.transformCell permette di esprimere le mosse nel riferimento canonico, e tramite Zobrist.inverseCell di riportarle indietro.
+     * @param toMove Simbolo del giocatore che deve muovere, come per getCanonicalHash(Symbol)
+     * @return Indice della simmetria, tra 0 e Zobrist.SYMMETRIES - 1
+     */
+    public int getCanonicalSymmetry(Symbol toMove) {
+        long[] mine = (toMove == Symbol.O) ? hashO : hashX;
+        long[] theirs = (toMove == Symbol.O) ? hashX : hashO;
+        int best = 0;
+        for (int t = 1; t < Zobrist.SYMMETRIES; t++) {
+            if (Long.compareUnsigned(Zobrist.combine(mine[t], theirs[t]), Zobrist.combine(mine[best], theirs[best])) < 0) {
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /* Minimo (senza segno) degli hash delle 8 immagini simmetriche */
+    private static long canonicalHash(long[] first, long[] second) {
+        long best = Zobrist.combine(first[0], second[0]);
+        for (int t = 1; t < Zobrist.SYMMETRIES; t++) {
+            long hash = Zobrist.combine(first[t], second[t]);
+            if (Long.compareUnsigned(hash, best) < 0) {
+                best = hash;
+            }
+        }
+        return best;
+    }
+
+    /* Aggiunge o rimuove (lo XOR è l'inverso di se stesso) la cella passata dagli hash di tutte le simmetrie */
+    private void toggleHash(long[] hashes, int index) {
+        for (int t = 0; t < Zobrist.SYMMETRIES; t++) {
+            hashes[t] ^= zobrist.key(t, index);
+        }
+    }
+
+    /* Metodo che controlla lo stato attuale della partita, dunque se qualcuno ha vinto o c'è un pareggio, o se la partita sta ancora andando.
+    *  Dal momento che una mossa può completare solamente linee passanti per la cella appena occupata, è sufficiente contare i simboli
+    *  consecutivi nelle quattro direzioni a partire da essa: il costo non dipende dalla dimensione della griglia */
+    private void recomputeStatus(int row, int col, Symbol mover) {
+        if (status != BoardStatus.ONGOING) {
+            return;     // round già concluso, lo stato non può più cambiare
+        }
+
+        long[] bits = (mover == Symbol.X) ? bitsX : bitsO;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1 + countRun(bits, row, col, dir[0], dir[1], winLength - 1)
+                    + countRun(bits, row, col, -dir[0], -dir[1], winLength - 1);
+            if (count >= winLength) {
+                status = (mover == Symbol.X) ? BoardStatus.WIN_X : BoardStatus.WIN_O;
+                return;
+            }
+        }
+
+        /* Se tutte le celle sono occupate e nessuno ha vinto ci si trova in una condizione di pareggio */
+        status = (moveCount == cellCount) ? BoardStatus.DRAW : BoardStatus.ONGOING;
+    }
+
+    /* Conta i simboli consecutivi presenti in bits a partire dalla cella successiva a (row, col) lungo la direzione (dr, dc), fermandosi
+    *  a limit: per il controllo della vittoria non serve proseguire oltre winLength - 1 */
+    private int countRun(long[] bits, int row, int col, int dr, int dc, int limit) {
+        int count = 0;
+        for (int r = row + dr, c = col + dc; count < limit && r >= 0 && r < size && c >= 0 && c < size; r += dr, c += dc) {
+            int index = r * size + c;
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Celle che compongono la linea vincente del round, ricavata a partire dalla mossa che ha concluso la partita
+     * @return Indici (row * size + col) delle celle allineate, array vuoto se nessuno ha vinto
+     */
+    public int[] getWinningLine() {
+        if (status != BoardStatus.WIN_X && status != BoardStatus.WIN_O) {
+            return new int[0];
+        }
+
+        /* La mossa vincente è l'ultima effettuata mentre la partita era ancora in corso */
+        int m = moveCount - 1;
+        while (m > 0 && statusStack[m] != BoardStatus.ONGOING) {
+            m--;
+        }
+        int row = moveStack[m] / size;
+        int col = moveStack[m] % size;
+        long[] bits = (status == BoardStatus.WIN_X) ? bitsX : bitsO;
+
+        for (int[] dir : DIRECTIONS) {
+            int forward = countRun(bits, row, col, dir[0], dir[1], size);
+            int backward = countRun(bits, row, col, -dir[0], -dir[1], size);
+            if (1 + forward + backward >= winLength) {
+                int[] line = new int[1 + forward + backward];
+                for (int i = 0; i < line.length; i++) {
+                    int step = i - backward;
+                    line[i] = (row + step * dir[0]) * size + (col + step * dir[1]);
+                }
+                return line;
+            }
+        }
+        return new int[0];
+    }
+
+    /* Metodo che ritorna una lista di mosse disponibili a seconda dello stato interno della Board. Al metodo viene passato il Symbol associato
+    * al giocatore che lo chiama, così che la lista di mosse tornata, sia relativa a tale giocatore. Le mosse sono le istanze canoniche di
+    * Move.of, dunque l'unica allocazione è quella della lista: nei percorsi critici si preferisca fillAvailableMoves */
+    public List<Move> getAvailableMoves(Symbol symbol) {
+        List<Move> moves = new ArrayList<>(cellCount - moveCount);
+        for (int w = 0; w < bitsX.length; w++) {
+            long empty = emptyWord(w);
+            while (empty != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(empty);
+                moves.add(Move.ofCell(index, size, symbol));
+                empty &= empty - 1;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Scrive nel buffer passato gli indici (row * size + col) delle celle libere, in ordine riga per riga, senza allocare nulla.
+     * @param buffer Array in cui scrivere le celle, deve poter contenere almeno getCellCount() - getMoveCount() elementi
+     * @return Numero di celle libere scritte nel buffer
+     * @throws IllegalArgumentException se il buffer è troppo piccolo
+     */
+    public int fillAvailableMoves(int[] buffer) {
+        if (buffer.length < cellCount - moveCount) {
+            throw new IllegalArgumentException("Buffer troppo piccolo: " + buffer.length + " < " + (cellCount - moveCount));
+        }
+
+        int count = 0;
+        for (int w = 0; w < bitsX.length; w++) {
+            long empty = emptyWord(w);
+            while (empty != 0) {
+                buffer[count++] = (w << 6) + Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+            }
+        }
+        return count;
+    }
+
+    /* Numero di celle ancora libere */
+    public int getEmptyCount() {
+        return cellCount - moveCount;
+    }
+
+    /* Le celle libere sono il complemento di quelle occupate, esclusi i bit dell'ultima parola oltre l'ultima cella */
+    private long emptyWord(int w) {
+        long empty = ~(bitsX[w] | bitsO[w]);
+        if (w == bitsX.length - 1 && (cellCount & 63) != 0) {
+            empty &= (1L << (cellCount & 63)) - 1;
+        }
+        return empty;
+    }
+
+    /* Simbolo presente nella cella di indice passato */
+    private Symbol symbolAt(int index) {
+        long bit = 1L << index;
+        if ((bitsX[index >>> 6] & bit) != 0) {
+            return Symbol.X;
+        }
+        if ((bitsO[index >>> 6] & bit) != 0) {
+            return Symbol.O;
+        }
+        return Symbol.EMPTY;
+    }
+
+    private boolean isEmpty(int index) {
+        return ((bitsX[index >>> 6] | bitsO[index >>> 6]) & (1L << index)) == 0;
+    }
+
+    /* Converte le coordinate di una cella nel suo indice all'interno degli insiemi di bit */
+    private int indexOf(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            throw new IndexOutOfBoundsException("Cella fuori dalla griglia: (" + row + ", " + col + ")");
+        }
+        return row * size + col;
+    }
+}
@@ -0,0 +1,20 @@
+package com.brux.tris.model;
+
+/* Osservatore delle modifiche alla board di una partita, notificato da Game per ogni mossa applicata e ad ogni nuovo round, così che una
+*  vista possa aggiornare soltanto le celle cambiate invece di rileggere l'intera griglia. Non riceve le mosse di prova che i bot effettuano
+*  (e annullano) durante la ricerca. Viene eseguito sul thread che ha giocato il turno, dunque deve essere rapido */
+public interface BoardListener {
+
+    /**
+     * La board va riletta per intero: è appena iniziato un nuovo round oppure il listener è appena stato collegato alla partita
+     * @param board Board della partita, da non modificare
+     */
+    void boardReset(Board board);
+
+    /**
+     * Una cella della board è stata occupata
+     * @param cell Indice della cella (row * size + col)
+     * @param symbol Simbolo che la occupa
+     */
+    void cellChanged(int cell, Symbol symbol);
+}
@@ -0,0 +1,85 @@
+package com.brux.tris.model;
+
+/* Classe astratta che rappresenta i vari tipi di bot, a seconda della difficoltà */
+public abstract class BotPlayer implements Player {
+
+    /* Campo posseduto da tutti i bot a prescindere dalla bravura, rappresenta il simbolo associato */
+    private final Symbol symbol;
+
+    /* Costruttore */
+    public BotPlayer(Symbol symbol) {
+        this.symbol = symbol;
+    }
+
+    /* Implementazione del metodo getSymbol dell'interfaccia player, che si limita a tornare il valore contenuto nel campo symbol */
+    @Override
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /* Il metodo makeMove, viene ridichiarato come astratto per chiarezza, ma senza essere reimplementato, infatti verrà implementato dai singoli
+    *  Bot che estenderanno questa classe astratta */
+    @Override
+    public abstract Move makeMove(Board board);
+
+
+    /* Nodi visitati dalla ricerca del bot dalla sua creazione, letti prima e dopo ogni mossa dalla strumentazione (si veda TurnProfiler);
+    *  0 per i bot che non effettuano ricerche */
+    public long getSearchNodes() {
+        return 0;
+    }
+
+    /* Nodi risolti dalla tabella delle trasposizioni del bot dalla sua creazione, 0 per i bot senza tabella */
+    public long getTableHits() {
+        return 0;
+    }
+
+
+    /* -------------- UTILITIES per bots ------------- */
+    /**
+     * Metodo di ausilio per makeMove, che prova tutte le mosse disponibili direttamente sulla board passata, annullandole subito dopo, e
+     * controlla se almeno una di queste porta alla vittoria. Se trovata questa mossa, viene subito restituita. Al termine del metodo la board
+     * si trova esattamente nello stato in cui è stata ricevuta.
+     * @param board Board che mantiene lo stato attuale della partita
+     * @param symbol Simbolo del giocatore per cui si sta cercando la posizione vincente
+     * @return Mossa che porta alla vittoria se trovata, se no null
+     */
+    protected Move findWinningMove(Board board, Symbol symbol) {
+        int cell = findWinningCell(board, symbol);
+        return (cell < 0) ? null : Move.ofCell(cell, board.getSize(), symbol);
+    }
+
+    /**
+     * Variante primitiva di findWinningMove, che non produce alcun oggetto: le celle vengono provate effettuando e annullando la mossa
+     * sulla board stessa, senza crearne copie.
+     * @return Indice (row * size + col) della cella vincente se trovata, altrimenti -1
+     */
+    protected int findWinningCell(Board board, Symbol symbol) {
+        BoardStatus win = (symbol == Symbol.X) ? BoardStatus.WIN_X : BoardStatus.WIN_O;
+
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.applyMove(cell, symbol)) {
+                continue;   // cella occupata
+            }
+
+            boolean winning = board.getStatus() == win;
+            board.undoMove();
+
+            if (winning) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Metodo di ausilio per i bot che necessitano di una board su cui simulare le mosse senza toccare quella della partita: la copia viene
+     * fatta in tempo costante tramite il costruttore di copia della Board, senza rigiocare le mosse
+     * @param original Board originale associata alla mossa corrente
+     * @return Copia della Board originale
+     */
+    protected Board copyBoard(Board original) {
+        return new Board(original);
+    }
+    /* ------------------------------------------------------ */
+}
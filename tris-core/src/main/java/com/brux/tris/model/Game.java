@@ -0,0 +1,219 @@
+package com.brux.tris.model;
+
+import com.brux.tris.service.GameEventPublisher;
+import com.brux.tris.service.ScoreKeeper;
+import com.brux.tris.service.TurnProfiler;
+
+/*
+* Si noti che all'interno di questo file quando si utilizza:
+* - round: si fa riferimento ai singoli game di tris all'interno della serie "infinita"
+* - parita: si fa riferimento appunto a questa serie "infinita" di round
+* */
+
+/* Gestore delle partite */
+public class Game {
+
+    private final Player playerX;
+    private final Player playerO;
+    private final Board board;
+    private final Mode mode;
+    private Player currentPlayer;
+    private Player roundStarter;                // giocatore che ha iniziato il round corrente
+    private final ScoreKeeper scoreKeeper;      // tiene traccia dello score della partita attuale
+    private GameRecorder recorder;              // eventuale registrazione dei round conclusi
+    private BoardListener boardListener;        // eventuale vista della board da aggiornare ad ogni mossa
+    private GameEventPublisher events;          // eventuale flusso di eventi della partita
+    private long eventSequence;                 // numero di eventi pubblicati
+    private int round = 1;                      // numero del round corrente, a partire da 1
+
+    /* Costruttore per il tris classico 3x3 */
+    public Game(Player playerX, Player playerO, ScoreKeeper scoreKeeper, Mode mode) {
+        this(playerX, playerO, scoreKeeper, mode, Board.DEFAULT_SIZE, Board.DEFAULT_WIN_LENGTH);
+    }
+
+    /* Costruttore per varianti su griglie size x size in cui vince chi allinea winLength simboli */
+    public Game(Player playerX, Player playerO, ScoreKeeper scoreKeeper, Mode mode, int size, int winLength) {
+        this.playerX = playerX;
+        this.playerO = playerO;
+        this.scoreKeeper = scoreKeeper;
+        this.mode = mode;
+
+        this.board = new Board(size, winLength);
+        this.currentPlayer = playerX;   // Di default a partire nel primo round della partita è il simbolo X
+        this.roundStarter = playerX;
+    }
+
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /* Imposta l'osservatore a cui notificare ogni round concluso (null per non registrare nulla) */
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /* Imposta il flusso su cui pubblicare gli eventi della partita (null per nessuno). La pubblicazione non blocca mai il turno: si veda
+    *  GameEventPublisher per il comportamento con abbonati lenti */
+    public void setEventPublisher(GameEventPublisher events) {
+        this.events = events;
+    }
+
+    /* Imposta l'osservatore a cui notificare le modifiche della board (null per nessuno): viene subito allineato allo stato corrente */
+    public void setBoardListener(BoardListener boardListener) {
+        this.boardListener = boardListener;
+        if (boardListener != null) {
+            boardListener.boardReset(board);
+        }
+    }
+
+    /**
+     * Metodo che effettua la mossa del giocatore corrente.
+     * <ul>
+     *     <li> Se il giocatore umano non ha la mossa pronta non fa nulla </li>
+     *     <li> Se il bot o l'umano hanno la mossa pronta, la applica, aggiornando la Board </li>
+     *     <li> Se necessario (fine round) aggiorna lo score </li>
+     *     <li> Se il round è ancora in corso (ONGOING) effettua il cambio del giocatore corrente </li>
+     * </ul>
+     * @return Lo stato corrente della Board
+     */
+    public BoardStatus playTurn() {
+        return playTurn(SearchBudget.unlimited());
+    }
+
+    /**
+     * Variante di playTurn in cui il giocatore corrente deve scegliere la mossa entro il budget passato (si veda
+     * Player.makeMove(Board, SearchBudget)), utile per partite tra bot a latenza fissa
+     * @param budget Limite di tempo e/o di nodi per la scelta della mossa
+     * @return Lo stato corrente della Board
+     */
+    public BoardStatus playTurn(SearchBudget budget) {
+        Move move = TurnProfiler.makeMove(currentPlayer, board, budget);  // salvataggio della mossa fatta dal player corrente
+
+        if (move == null) {
+            /* Caso in cui il player umano non aveva la mossa pronta (in attesa della mossa) */
+            return board.getStatus();   // fallback
+        }
+
+        return applyTurn(move);
+    }
+
+    /**
+     * Applica una mossa del giocatore corrente calcolata altrove, ad esempio da un bot su un thread in background a partire da una copia
+     * della board: lo stato della partita viene aggiornato esattamente come in playTurn.
+     * @param move Mossa del giocatore corrente
+     * @return Lo stato corrente della Board
+     * @throws IllegalStateException se il round è già concluso
+     * @throws IllegalArgumentException se la mossa non è del giocatore corrente o la cella è occupata
+     */
+    public BoardStatus playMove(Move move) {
+        if (board.getStatus() != BoardStatus.ONGOING) {
+            throw new IllegalStateException("Round già concluso");
+        }
+        if (move.getSymbol() != currentPlayer.getSymbol()) {
+            throw new IllegalArgumentException("Non è il turno di " + move.getSymbol());
+        }
+        if (!board.isCellEmpty(move.getRow(), move.getCol())) {
+            throw new IllegalArgumentException("Cella già occupata: " + move);
+        }
+
+        return applyTurn(move);
+    }
+
+    /* Applica la mossa, poi cambia giocatore se il round continua o aggiorna lo score se è terminato - metodo di ausilio per playTurn */
+    private BoardStatus applyTurn(Move move) {
+        board.applyMove(move);
+        if (boardListener != null) {
+            boardListener.cellChanged(move.getRow() * board.getSize() + move.getCol(), move.getSymbol());
+        }
+        BoardStatus status = board.getStatus();   // nuovo stato della board
+        if (events != null) {
+            events.publish(new GameEvent.MoveApplied(++eventSequence, round, move, status));
+        }
+
+        if (status == BoardStatus.ONGOING) {
+            /* Partita non finita, si switcha il player */
+            switchPlayer();
+        } else {
+            /* Partita terminata, si aggiorano gli score e si registra il round */
+            updateScore(status);
+            if (recorder != null) {
+                recorder.roundEnded(playerX, playerO, roundStarter.getSymbol(), status, board);
+            }
+            if (events != null) {
+                events.publish(new GameEvent.RoundEnded(++eventSequence, round, status, roundStarter.getSymbol(), board.getMoveCount(),
+                        board.getWinningLine()));
+                events.publish(new GameEvent.ScoreChanged(++eventSequence, round, scoreKeeper.getScore(Symbol.X),
+                        scoreKeeper.getScore(Symbol.O), scoreKeeper.getDraws()));
+            }
+        }
+
+        return status;
+    }
+
+    /**
+     * Effettua il cambio turno - metodo di ausiolio per playTurn
+     */
+    private void switchPlayer() {
+        currentPlayer = (currentPlayer == playerX) ? playerO : playerX;
+    }
+
+    /**
+     * Aggiorna lo score della partita attuale - metodo di ausilio per playTurn
+     * @param status Stato in cui si è conclusa il round
+     */
+    private void updateScore(BoardStatus status) {
+        if (status == BoardStatus.WIN_O) {
+            scoreKeeper.increment(Symbol.O);
+        } else if (status == BoardStatus.WIN_X) {
+            scoreKeeper.increment(Symbol.X);
+        } else if (status == BoardStatus.DRAW) {
+            scoreKeeper.incrementDraws();
+        }
+    }
+
+    /**
+     * Avvia un nuovo round all'interno della partita attuale, impostando dunque il player che inizia
+     * @param starter Giocatore che inizierà il prossimo round
+     */
+    public void startNewRound(Player starter) {
+        if (board.getMoveCount() > 0) {
+            round++;    // il round precedente è stato giocato, concluso o meno
+        }
+        board.reset();
+        currentPlayer = starter;
+        roundStarter = starter;
+        if (boardListener != null) {
+            boardListener.boardReset(board);
+        }
+        if (events != null) {
+            events.publish(new GameEvent.NewRound(++eventSequence, round, starter.getSymbol(), board.getSize(), board.getWinLength()));
+        }
+    }
+
+    /**
+     * Stabilisce chi deve cominciare il prossimo round in funzione di come è terminato il precedente secondo questa logica:
+     * <li>Se qualcuno ha perso inizia lui </li>
+     * <li>Se è avvenuto un pareggio, inizia quello che non ha iniziato il round precedente </li>
+     * @param lastStatus Stato in cui è terminato il round precedente
+     * @return Giocatore che inizierà il prossimo round
+     */
+    public Player getNextStarter(BoardStatus lastStatus) {
+        if (lastStatus == BoardStatus.WIN_O) {  // sconfitta di X, dunque inizia lui
+            return playerX;
+        } else if (lastStatus == BoardStatus.WIN_X) { // sconfitta di O, dunque inzia lui
+            return playerO;
+        } else { // pareggio
+            /* Si ricorda esplicitamente chi ha iniziato il round: con un numero pari di caselle ad effettuare l'ultima mossa non è
+            *  colui che ha iniziato, dunque currentPlayer non basterebbe */
+            return (roundStarter == playerX) ? playerO : playerX;
+        }
+    }
+}
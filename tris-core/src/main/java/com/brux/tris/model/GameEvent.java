@@ -0,0 +1,144 @@
+package com.brux.tris.model;
+
+/* Eventi pubblicati da una Game (si veda Game.setEventPublisher) a chi vuole seguirne l'andamento senza interrogare Board e ScoreKeeper:
+*  mossa applicata, round concluso, punteggio cambiato, nuovo round. Sono immutabili, dunque possono essere consegnati ad altri thread.
+*  Ogni evento riporta il numero del round (a partire da 1) e un numero di sequenza crescente per partita, grazie al quale un osservatore
+*  può accorgersi di eventi persi perché rimasto troppo indietro */
+public abstract sealed class GameEvent permits GameEvent.NewRound, GameEvent.MoveApplied, GameEvent.RoundEnded, GameEvent.ScoreChanged {
+
+    private final long sequence;
+    private final int round;
+
+    private GameEvent(long sequence, int round) {
+        this.sequence = sequence;
+        this.round = round;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    /* È iniziato un nuovo round, su una board vuota */
+    public static final class NewRound extends GameEvent {
+        private final Symbol starter;
+        private final int size;
+        private final int winLength;
+
+        public NewRound(long sequence, int round, Symbol starter, int size, int winLength) {
+            super(sequence, round);
+            this.starter = starter;
+            this.size = size;
+            this.winLength = winLength;
+        }
+
+        public Symbol getStarter() {
+            return starter;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getWinLength() {
+            return winLength;
+        }
+
+        @Override
+        public String toString() {
+            return "NewRound{round=" + getRound() + ", starter=" + starter + ", " + size + "x" + size + "/" + winLength + '}';
+        }
+    }
+
+    /* Una mossa è stata applicata alla board; status è lo stato della board subito dopo */
+    public static final class MoveApplied extends GameEvent {
+        private final Move move;
+        private final BoardStatus status;
+
+        public MoveApplied(long sequence, int round, Move move, BoardStatus status) {
+            super(sequence, round);
+            this.move = move;
+            this.status = status;
+        }
+
+        public Move getMove() {
+            return move;
+        }
+
+        public BoardStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return "MoveApplied{round=" + getRound() + ", move=" + move + ", status=" + status + '}';
+        }
+    }
+
+    /* Il round si è concluso; winningLine contiene le celle della linea vincente (vuoto in caso di pareggio) */
+    public static final class RoundEnded extends GameEvent {
+        private final BoardStatus result;
+        private final Symbol starter;
+        private final int moves;
+        private final int[] winningLine;
+
+        public RoundEnded(long sequence, int round, BoardStatus result, Symbol starter, int moves, int[] winningLine) {
+            super(sequence, round);
+            this.result = result;
+            this.starter = starter;
+            this.moves = moves;
+            this.winningLine = winningLine.clone();
+        }
+
+        public BoardStatus getResult() {
+            return result;
+        }
+
+        public Symbol getStarter() {
+            return starter;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public int[] getWinningLine() {
+            return winningLine.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "RoundEnded{round=" + getRound() + ", result=" + result + ", moves=" + moves + '}';
+        }
+    }
+
+    /* Il punteggio della partita è cambiato (a fine round) */
+    public static final class ScoreChanged extends GameEvent {
+        private final int scoreX;
+        private final int scoreO;
+        private final int draws;
+
+        public ScoreChanged(long sequence, int round, int scoreX, int scoreO, int draws) {
+            super(sequence, round);
+            this.scoreX = scoreX;
+            this.scoreO = scoreO;
+            this.draws = draws;
+        }
+
+        public int getScore(Symbol symbol) {
+            return (symbol == Symbol.X) ? scoreX : scoreO;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        @Override
+        public String toString() {
+            return "ScoreChanged{round=" + getRound() + ", X=" + scoreX + ", O=" + scoreO + ", draws=" + draws + '}';
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.brux.tris.model;
+
+/* Osservatore dei round conclusi di una partita, chiamato da Game subito dopo l'ultima mossa, quando la board contiene ancora l'intera
+*  sequenza di mosse del round (si veda Board.getMoveAt). Viene eseguito sul thread che ha giocato il turno, dunque deve essere rapido */
+@FunctionalInterface
+public interface GameRecorder {
+
+    /**
+     * @param playerX Giocatore con il simbolo X
+     * @param playerO Giocatore con il simbolo O
+     * @param starter Simbolo del giocatore che ha iniziato il round
+     * @param result Esito del round
+     * @param board Board a fine round, da non modificare
+     */
+    void roundEnded(Player playerX, Player playerO, Symbol starter, BoardStatus result, Board board);
+}
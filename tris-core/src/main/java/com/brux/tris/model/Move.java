@@ -0,0 +1,81 @@
+package com.brux.tris.model;
+
+/* Singole mosse effettuate da parte dei giocatori */
+public class Move {
+
+    /* Dal momento che concettualmente una volta che una mossa è fatta, questa è anche immutabile, i campi vengono posti final */
+    private final int row;
+    private final int col;
+    private final Symbol symbol;
+
+    /* Istanze canoniche delle mosse sulle griglie fino a CACHE_SIZE x CACHE_SIZE, create una sola volta e condivise: essendo immutabili,
+    *  Move.of può restituire sempre lo stesso oggetto per la stessa terna (riga, colonna, simbolo) senza allocare nulla */
+    private static final int CACHE_SIZE = 19;
+    private static final Move[][] CACHE = new Move[Symbol.values().length][CACHE_SIZE * CACHE_SIZE];
+
+    static {
+        for (Symbol symbol : Symbol.values()) {
+            for (int cell = 0; cell < CACHE_SIZE * CACHE_SIZE; cell++) {
+                CACHE[symbol.ordinal()][cell] = new Move(cell / CACHE_SIZE, cell % CACHE_SIZE, symbol);
+            }
+        }
+    }
+
+    public Move(int row, int col, Symbol symbol) {
+        this.row = row;
+        this.col = col;
+        this.symbol = symbol;
+    }
+
+    /* Mossa canonica per la terna passata, da preferire al costruttore nei percorsi critici (ricerca, generazione delle mosse). Fuori
+    *  dalle dimensioni memorizzate viene creata una nuova istanza */
+    public static Move of(int row, int col, Symbol symbol) {
+        if (row >= 0 && row < CACHE_SIZE && col >= 0 && col < CACHE_SIZE) {
+            return CACHE[symbol.ordinal()][row * CACHE_SIZE + col];
+        }
+        return new Move(row, col, symbol);
+    }
+
+    /* Mossa canonica a partire dall'indice di cella (row * size + col) utilizzato dalla Board */
+    public static Move ofCell(int cell, int size, Symbol symbol) {
+        return of(cell / size, cell % size, symbol);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /* Le mosse create tramite costruttore possono coesistere con quelle canoniche, dunque l'uguaglianza è per valore */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Move other)) {
+            return false;
+        }
+        return row == other.row && col == other.col && symbol == other.symbol;
+    }
+
+    @Override
+    public int hashCode() {
+        return (row * 31 + col) * 31 + symbol.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Move{" +
+                "row=" + row +
+                ", col=" + col +
+                ", symbol=" + symbol +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.brux.tris.model;
+
+import com.brux.tris.service.TurnProfiler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/* Interfaccia che definisce i metodi che dovranno avere i vari player, che siano umani o bot */
+public interface Player {
+
+    /* Restituisce il simbolo associato al giocatore */
+    Symbol getSymbol();
+
+    /* Restituisce la mossa proposta dal giocatore */
+    Move makeMove(Board board);
+
+    /**
+     * Restituisce la mossa proposta dal giocatore entro il budget passato. I giocatori capaci di una ricerca interrompibile (ad esempio per
+     * approfondimento iterativo) restituiscono la migliore mossa trovata allo scadere del budget; di default il budget viene ignorato,
+     * adatto ai giocatori la cui scelta è comunque immediata.
+     * @param board Board che mantiene lo stato attuale della partita
+     * @param budget Limite di tempo e/o di nodi per la scelta
+     */
+    default Move makeMove(Board board, SearchBudget budget) {
+        return makeMove(board);
+    }
+
+    /**
+     * Variante asincrona di makeMove(Board, SearchBudget): la mossa viene calcolata sull'executor passato, su una copia della board, così
+     * che la board originale possa continuare ad essere letta (ad esempio dalla UI) durante il calcolo. La mossa viene misurata come in
+     * Game.playTurn (si veda TurnProfiler).
+     * @return Future completato con la mossa del giocatore
+     */
+    default CompletableFuture<Move> makeMoveAsync(Board board, SearchBudget budget, Executor executor) {
+        Board snapshot = new Board(board);
+        return CompletableFuture.supplyAsync(() -> TurnProfiler.makeMove(this, snapshot, budget), executor);
+    }
+}
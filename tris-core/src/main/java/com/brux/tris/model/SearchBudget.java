@@ -0,0 +1,80 @@
+package com.brux.tris.model;
+
+import java.time.Duration;
+
+/* Limite di risorse entro cui un giocatore deve scegliere la propria mossa: tempo massimo, numero massimo di nodi (o di playout, per i
+*  bot Monte Carlo), entrambi o nessuno. Allo scadere del budget i bot che lo supportano restituiscono la migliore mossa trovata fino a
+*  quel momento. È immutabile, e il tempo inizia a scorrere solo quando un giocatore lo utilizza (si veda deadlineFrom) */
+public final class SearchBudget {
+
+    private static final SearchBudget UNLIMITED = new SearchBudget(0L, 0L);
+
+    private final long timeNanos;    // 0 = nessun limite di tempo
+    private final long maxNodes;     // 0 = nessun limite di nodi
+
+    private SearchBudget(long timeNanos, long maxNodes) {
+        if (timeNanos < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Il budget non può essere negativo");
+        }
+        this.timeNanos = timeNanos;
+        this.maxNodes = maxNodes;
+    }
+
+    /* Budget illimitato: il giocatore sceglie la mossa come farebbe con makeMove(Board) */
+    public static SearchBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /* Budget con il solo limite di tempo */
+    public static SearchBudget ofTime(Duration time) {
+        return new SearchBudget(time.toNanos(), 0L);
+    }
+
+    /* Budget con il solo limite di nodi */
+    public static SearchBudget ofNodes(long nodes) {
+        return new SearchBudget(0L, nodes);
+    }
+
+    /* Copia del budget con il limite di nodi passato */
+    public SearchBudget withNodes(long nodes) {
+        return new SearchBudget(timeNanos, nodes);
+    }
+
+    /* Copia del budget con il limite di tempo passato */
+    public SearchBudget withTime(Duration time) {
+        return new SearchBudget(time.toNanos(), maxNodes);
+    }
+
+    public boolean isUnlimited() {
+        return timeNanos == 0 && maxNodes == 0;
+    }
+
+    public boolean hasTimeLimit() {
+        return timeNanos > 0;
+    }
+
+    public boolean hasNodeLimit() {
+        return maxNodes > 0;
+    }
+
+    /* Istante (nel riferimento di System.nanoTime) in cui scade il tempo, se la ricerca inizia in start; Long.MAX_VALUE se illimitato */
+    public long deadlineFrom(long start) {
+        return (timeNanos > 0) ? start + timeNanos : Long.MAX_VALUE;
+    }
+
+    /* Numero massimo di nodi, Long.MAX_VALUE se illimitato */
+    public long getNodeLimit() {
+        return (maxNodes > 0) ? maxNodes : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        if (isUnlimited()) {
+            return "SearchBudget{illimitato}";
+        }
+        return "SearchBudget{" +
+                "time=" + ((timeNanos > 0) ? Duration.ofNanos(timeNanos) : "-") +
+                ", nodes=" + ((maxNodes > 0) ? maxNodes : "-") +
+                '}';
+    }
+}
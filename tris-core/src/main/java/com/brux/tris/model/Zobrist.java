@@ -0,0 +1,95 @@
+package com.brux.tris.model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Chiavi casuali dell'hashing di Zobrist per una griglia size x size: l'hash di un insieme di celle è lo XOR delle chiavi delle celle che
+*  contiene, dunque occupare o liberare una cella lo aggiorna con un solo XOR. Per ognuna delle 8 simmetrie della griglia (4 rotazioni,
+*  ciascuna eventualmente riflessa) è precalcolata la tabella delle chiavi delle celle trasformate, così che la Board possa mantenere in
+*  tempo costante anche l'hash di tutte le sue immagini simmetriche, il cui minimo è invariante per simmetria */
+public final class Zobrist {
+
+    public static final int SYMMETRIES = 8;
+
+    /* Seme fisso: gli hash sono stabili tra un'esecuzione e l'altra e possono dunque essere salvati su file (libri di aperture, log) */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /* Istanze già costruite, una per dimensione della griglia */
+    private static final Map<Integer, Zobrist> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+
+    /* cellMaps[t][cell] è la cella in cui finisce cell applicando la simmetria t */
+    private final int[][] cellMaps;
+
+    /* keys[t][cell] è la chiave della cella in cui finisce cell applicando la simmetria t (keys[0] sono le chiavi delle celle stesse) */
+    private final long[][] keys;
+
+    private Zobrist(int size) {
+        this.size = size;
+        int cells = size * size;
+
+        SplittableRandom random = new SplittableRandom(SEED ^ size);
+        long[] base = new long[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            base[cell] = random.nextLong();
+        }
+
+        this.cellMaps = new int[SYMMETRIES][cells];
+        this.keys = new long[SYMMETRIES][cells];
+        for (int t = 0; t < SYMMETRIES; t++) {
+            for (int cell = 0; cell < cells; cell++) {
+                cellMaps[t][cell] = computeCell(t, cell);
+                keys[t][cell] = base[cellMaps[t][cell]];
+            }
+        }
+    }
+
+    /* Chiavi della griglia size x size, costruite al primo utilizzo e poi condivise */
+    public static Zobrist of(int size) {
+        return CACHE.computeIfAbsent(size, Zobrist::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /* Cella in cui finisce la cella passata applicando la simmetria t */
+    public int transformCell(int t, int cell) {
+        return cellMaps[t][cell];
+    }
+
+    /* Cella da cui proviene la cella passata applicando la simmetria t, ossia la sua trasformazione tramite la simmetria inversa */
+    public int inverseCell(int t, int cell) {
+        // Le riflessioni e la rotazione di 180 gradi sono inverse di se stesse, le rotazioni di 90 e 270 gradi l'una dell'altra
+        int inverse = (t == 1 || t == 3) ? 4 - t : t;
+        return cellMaps[inverse][cell];
+    }
+
+    /* Chiave della cella passata nell'immagine tramite la simmetria t */
+    long key(int t, int cell) {
+        return keys[t][cell];
+    }
+
+    /* Combinazione degli hash delle celle dei due giocatori in un'unica chiave: la rotazione rende le chiavi del secondo insieme diverse da
+    *  quelle del primo, così che scambiare i due insiemi cambi l'hash */
+    static long combine(long first, long second) {
+        return first ^ Long.rotateLeft(second, 1);
+    }
+
+    /* t & 3 rotazioni di 90 gradi, seguite da una riflessione orizzontale se t >= 4 */
+    private int computeCell(int t, int cell) {
+        int row = cell / size;
+        int col = cell % size;
+        for (int i = 0; i < (t & 3); i++) {
+            int tmp = row;
+            row = col;
+            col = size - 1 - tmp;
+        }
+        if (t >= 4) {
+            col = size - 1 - col;
+        }
+        return row * size + col;
+    }
+}
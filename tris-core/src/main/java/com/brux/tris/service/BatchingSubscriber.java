@@ -0,0 +1,156 @@
+package com.brux.tris.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/* Abbonato che accumula gli elementi ricevuti in un buffer limitato e li consegna a blocchi ad un consumatore, sull'executor passato (es.
+*  Platform::runLater per la UI). Finché il consumatore è impegnato gli elementi in arrivo si accumulano e gli vengono consegnati tutti
+*  insieme alla chiamata successiva: un consumatore lento riceve meno chiamate con blocchi più grandi invece di restare indietro di un
+*  elemento per volta. Il buffer non supera mai capacity elementi perché se ne richiedono al publisher solo quanti ce ne stanno (request(n));
+*  oltre, è il publisher a trattenerli o scartarli. Il consumatore viene chiamato da un solo thread per volta, con i blocchi in ordine */
+public final class BatchingSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final int capacity;
+    private final Executor executor;
+    private final Consumer<List<T>> consumer;
+
+    /* Guardano buffer, richieste e consegna in corso; ReentrantLock così da non bloccare il carrier se chiamato da virtual thread */
+    private final ReentrantLock lock = new ReentrantLock();
+    private Flow.Subscription subscription;
+    private List<T> buffer = new ArrayList<>();
+    private int requested;          // elementi richiesti al publisher e non ancora arrivati
+    private boolean draining;       // consegna in corso o programmata sull'executor
+    private volatile boolean cancelled;
+
+    /**
+     * @param capacity Massimo numero di elementi accumulati in attesa del consumatore, nonché massima dimensione di un blocco
+     * @param executor Executor su cui viene chiamato il consumatore
+     * @param consumer Consumatore dei blocchi, mai vuoti
+     * @throws IllegalArgumentException se la capacità non è positiva
+     */
+    public BatchingSubscriber(int capacity, Executor executor, Consumer<List<T>> consumer) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacità del buffer non valida: " + capacity);
+        }
+        this.capacity = capacity;
+        this.executor = executor;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        lock.lock();
+        try {
+            if (this.subscription != null || cancelled) {
+                subscription.cancel();      // un solo publisher per abbonato
+                return;
+            }
+            this.subscription = subscription;
+            requested = capacity;
+        } finally {
+            lock.unlock();
+        }
+        subscription.request(capacity);
+    }
+
+    @Override
+    public void onNext(T item) {
+        boolean schedule;
+        lock.lock();
+        try {
+            buffer.add(item);
+            requested--;
+            schedule = !draining;
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        System.err.println("Flusso di eventi interrotto: " + error);
+        onComplete();
+    }
+
+    /* Consegna gli elementi rimasti nel buffer */
+    @Override
+    public void onComplete() {
+        boolean schedule;
+        lock.lock();
+        try {
+            schedule = !draining && !buffer.isEmpty();
+            draining |= schedule;
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /* Interrompe l'abbonamento: i blocchi non ancora consegnati vengono scartati */
+    public void cancel() {
+        cancelled = true;
+        Flow.Subscription current;
+        lock.lock();
+        try {
+            current = subscription;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /* Consegna tutto il buffer come un unico blocco e solo dopo richiede al publisher altrettanti elementi, così che il tempo speso dal
+    *  consumatore faccia da contropressione; se nel frattempo ne sono arrivati altri si riprogramma. Se il consumatore lancia un'eccezione
+    *  il blocco va perso, ma stato della consegna e richieste vengono ripristinati comunque, altrimenti l'abbonato resterebbe fermo */
+    private void drain() {
+        List<T> batch;
+        lock.lock();
+        try {
+            batch = buffer;
+            buffer = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (!cancelled && !batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        } finally {
+            refill();
+        }
+    }
+
+    /* Richiede al publisher gli elementi consegnati e riprogramma la consegna se il buffer non è vuoto */
+    private void refill() {
+        int refill;
+        boolean again;
+        lock.lock();
+        try {
+            refill = capacity - requested - buffer.size();
+            requested += refill;
+            again = !buffer.isEmpty();
+            draining = again;
+        } finally {
+            lock.unlock();
+        }
+        if (refill > 0 && !cancelled) {
+            subscription.request(refill);
+        }
+        if (again) {
+            executor.execute(this::drain);
+        }
+    }
+}
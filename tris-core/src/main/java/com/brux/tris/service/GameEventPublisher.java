@@ -0,0 +1,85 @@
+package com.brux.tris.service;
+
+import com.brux.tris.model.GameEvent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/* Flusso degli eventi di una o più partite (si veda Game.setEventPublisher), a cui possono abbonarsi UI, log, metriche o spettatori remoti
+*  tramite l'interfaccia Flow del JDK. Ogni abbonato ha un proprio buffer limitato e riceve gli eventi su un thread dell'executor, al ritmo
+*  delle proprie richieste (request(n)). La pubblicazione non blocca mai la partita: se il buffer di un abbonato è pieno perché questo è
+*  rimasto troppo indietro, l'evento viene scartato per lui soltanto e conteggiato (gli altri abbonati lo ricevono comunque); l'abbonato può
+*  accorgersene dai buchi nei numeri di sequenza e rileggere lo stato dalla Game. Per consumatori lenti si veda BatchingSubscriber */
+public final class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+
+    /* Executor predefinito: ogni consegna su un nuovo virtual thread, dunque nessun thread resta allocato tra un evento e l'altro */
+    private static final Executor VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final SubmissionPublisher<GameEvent> publisher;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /* Consegna scartata per un abbonato col buffer pieno: nessun nuovo tentativo, la partita non aspetta */
+    private final BiPredicate<Flow.Subscriber<? super GameEvent>, GameEvent> onDrop = (subscriber, event) -> {
+        dropped.increment();
+        return false;
+    };
+
+    /* Publisher con buffer di Flow.defaultBufferSize() eventi per abbonato, consegnati ciascuno su un proprio virtual thread */
+    public GameEventPublisher() {
+        this(VIRTUAL_THREADS, Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param executor Executor su cui vengono consegnati gli eventi agli abbonati
+     * @param bufferCapacity Eventi che possono restare in attesa per ciascun abbonato (arrotondato alla potenza di 2 successiva)
+     * @throws IllegalArgumentException se la capacità non è positiva
+     */
+    public GameEventPublisher(Executor executor, int bufferCapacity) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Capacità del buffer non valida: " + bufferCapacity);
+        }
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Pubblica un evento a tutti gli abbonati senza mai bloccare: chi ha il buffer pieno lo perde. Dopo close non fa nulla
+     * @param event Evento da pubblicare
+     */
+    public void publish(GameEvent event) {
+        if (publisher.isClosed()) return;
+
+        published.increment();
+        if (!publisher.hasSubscribers()) return;
+        publisher.offer(event, onDrop);
+    }
+
+    /* Eventi pubblicati in totale */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /* Consegne scartate perché il buffer dell'abbonato era pieno, sommate su tutti gli abbonati */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /* Chiude il flusso: gli abbonati ricevono onComplete dopo gli eventi ancora nel loro buffer */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
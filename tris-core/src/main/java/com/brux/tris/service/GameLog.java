@@ -0,0 +1,453 @@
+package com.brux.tris.service;
+
+import com.brux.tris.ai.PlayerKind;
+import com.brux.tris.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/* Registro binario dei round giocati, in un file mappato in memoria a cui i record vengono solo aggiunti in coda. Il file è suddiviso in
+*  blocchi da CHUNK_SIZE byte mappati al bisogno, così da poter contenere centinaia di milioni di round, e tutti i dati sono long allineati
+*  a 8 byte, dunque nessun valore è mai a cavallo tra due blocchi. Tutte le partite di un registro sono giocate sulla stessa griglia.
+*
+*  Intestazione del file (HEADER_SIZE byte): magic, versione, dimensione e allineamento della griglia, lunghezza dei dati confermati e
+*  numero di record. La lunghezza viene aggiornata solo dopo la scrittura completa di un record, dunque un'interruzione a metà lascia il
+*  registro valido (il record incompleto viene ignorato e poi sovrascritto).
+*
+*  Ogni record inizia con un long:
+*  <ul>
+*      <li> bit 0-1: esito (0 vittoria X, 1 vittoria O, 2 pareggio) </li>
+*      <li> bit 2: simbolo di chi ha iniziato (0 X, 1 O) </li>
+*      <li> bit 3-8 e 9-14: tipologia dei giocatori X e O (PlayerKind) </li>
+*      <li> bit 15-23: numero di mosse </li>
+*      <li> bit 24-63: sul tris 3x3, la sequenza delle mosse codificata come indice di permutazione (ogni mossa è il rango della cella tra
+*           quelle ancora libere, in base mista 9, 8, 7...), che per 9 mosse vale al massimo 9! = 362880 </li>
+*  </ul>
+*  Sulle altre griglie le mosse seguono l'intestazione come indici di cella a 16 bit, quattro per long. Un round 3x3 occupa dunque 8 byte.
+*  Il numero di mosse limita le griglie a 511 celle (al più 22x22): quelle più grandi vengono rifiutate all'apertura */
+public final class GameLog implements AutoCloseable {
+
+    private static final long MAGIC = 0x54524953_4C4F4701L;     // "TRISLOG" + 1
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int LENGTH_OFFSET = 16;
+    private static final int COUNT_OFFSET = 24;
+
+    /* Numero massimo di celle, dunque di mosse per round, rappresentabile nei 9 bit dell'intestazione dei record (griglie fino a 22x22) */
+    private static final int MAX_CELLS = 0x1FF;
+
+    private static final int CHUNK_SHIFT = 26;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;  // 64 MB
+
+    private static final BoardStatus[] RESULTS = {BoardStatus.WIN_X, BoardStatus.WIN_O, BoardStatus.DRAW};
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int size;
+    private final int winLength;
+    private final boolean packed;     // mosse codificate come indice di permutazione (tris 3x3)
+
+    /* Blocchi mappati del file, nell'ordine: vengono aggiunti raramente e letti da tutti i cursori, anche su thread diversi */
+    private final List<MappedByteBuffer> chunks = new CopyOnWriteArrayList<>();
+
+    /* Byte confermati (intestazione compresa) e numero di record */
+    private volatile long length;
+    private volatile long count;
+
+    private GameLog(FileChannel channel, boolean writable, int size, int winLength) {
+        this.channel = channel;
+        this.writable = writable;
+        this.size = size;
+        this.winLength = winLength;
+        this.packed = size == 3;
+    }
+
+    /**
+     * Apre in scrittura il registro al percorso passato, creandolo se non esiste: i nuovi record vengono aggiunti dopo quelli presenti
+     * @param size Dimensione della griglia delle partite registrate
+     * @param winLength Lunghezza dell'allineamento vincente
+     * @throws IllegalArgumentException se la griglia ha più di 511 celle, se il file esiste ma non è un registro o è relativo ad un'altra
+     *         griglia
+     */
+    public static GameLog open(Path path, int size, int winLength) throws IOException {
+        checkGeometry(size, winLength);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            /* L'intestazione di un file esistente viene letta e controllata prima di mapparlo in scrittura, dato che la mappatura lo
+            *  estende a CHUNK_SIZE byte: un file che non è un registro non deve essere toccato */
+            long fileSize = channel.size();
+            if (fileSize > 0) {
+                if (fileSize < HEADER_SIZE) {
+                    throw new IllegalArgumentException("Il file " + path + " non è un registro di partite");
+                }
+                MappedByteBuffer existing = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                existing.order(ByteOrder.LITTLE_ENDIAN);
+                checkHeader(existing);
+                if (existing.get(12) != size || existing.get(13) != winLength) {
+                    throw new IllegalArgumentException("Il registro " + path + " è relativo ad un'altra griglia");
+                }
+            }
+
+            GameLog log = new GameLog(channel, true, size, winLength);
+            MappedByteBuffer header = log.chunk(0);
+            if (fileSize == 0) {
+                /* File nuovo */
+                header.putLong(0, MAGIC);
+                header.putInt(8, VERSION);
+                header.put(12, (byte) size);
+                header.put(13, (byte) winLength);
+                header.putLong(LENGTH_OFFSET, HEADER_SIZE);
+                header.putLong(COUNT_OFFSET, 0);
+            }
+            log.length = header.getLong(LENGTH_OFFSET);
+            log.count = header.getLong(COUNT_OFFSET);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Apre in sola lettura un registro esistente
+     * @throws IllegalArgumentException se il file non è un registro
+     */
+    public static GameLog openReadOnly(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("Il file " + path + " non è un registro di partite");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            checkHeader(header);
+            GameLog log = new GameLog(channel, false, header.get(12), header.get(13));
+            checkGeometry(log.size, log.winLength);
+            log.length = header.getLong(LENGTH_OFFSET);
+            log.count = header.getLong(COUNT_OFFSET);
+            return log;
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Aggiunge in coda il record di un round concluso. Può essere chiamato da più thread.
+     * @param playerX Tipologia del giocatore X
+     * @param playerO Tipologia del giocatore O
+     * @param starter Simbolo del giocatore che ha iniziato il round
+     * @param result Esito del round
+     * @param board Board a fine round, da cui vengono lette le mosse
+     * @throws IllegalStateException se il registro è aperto in sola lettura
+     */
+    public synchronized void append(PlayerKind playerX, PlayerKind playerO, Symbol starter, BoardStatus result, Board board) {
+        if (!writable) {
+            throw new IllegalStateException("Registro aperto in sola lettura");
+        }
+        if (board.getSize() != size || board.getWinLength() != winLength) {
+            throw new IllegalArgumentException("Board " + board.getSize() + "x" + board.getSize() + " in un registro " + size + "x" + size);
+        }
+
+        int moves = board.getMoveCount();
+        long header = resultCode(result)
+                | ((starter == Symbol.O) ? 1L << 2 : 0L)
+                | ((long) playerX.getCode() << 3)
+                | ((long) playerO.getCode() << 9)
+                | ((long) moves << 15);
+
+        long offset = length;
+        if (packed) {
+            putLong(offset, header | (permutationIndex(board) << 24));
+            offset += 8;
+        } else {
+            putLong(offset, header);
+            offset += 8;
+            for (int i = 0; i < moves; i += 4) {
+                long word = 0L;
+                for (int j = 0; j < 4 && i + j < moves; j++) {
+                    word |= (long) board.getMoveAt(i + j) << (16 * j);
+                }
+                putLong(offset, word);
+                offset += 8;
+            }
+        }
+
+        /* Conferma del record: solo ora diventa visibile ai lettori e alle riaperture */
+        length = offset;
+        count++;
+        MappedByteBuffer first = chunks.get(0);
+        first.putLong(LENGTH_OFFSET, length);
+        first.putLong(COUNT_OFFSET, count);
+    }
+
+    /* Osservatore da impostare su una Game (Game.setRecorder) per registrarne tutti i round */
+    public GameRecorder recorder() {
+        return (playerX, playerO, starter, result, board) ->
+                append(PlayerKind.of(playerX), PlayerKind.of(playerO), starter, result, board);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /* Numero di record confermati */
+    public long getRecordCount() {
+        return count;
+    }
+
+    /* Byte occupati dai record confermati, intestazione compresa */
+    public long getLength() {
+        return length;
+    }
+
+    /* Cursore su tutti i record confermati al momento della chiamata */
+    public Cursor cursor() {
+        return new Cursor(HEADER_SIZE, length, count);
+    }
+
+    /**
+     * Suddivide i record confermati in (al più) parts cursori indipendenti con circa lo stesso numero di record, da scorrere in parallelo.
+     * Sul tris 3x3 i record hanno dimensione fissa e la suddivisione è immediata, altrimenti richiede una scansione delle intestazioni.
+     */
+    public List<Cursor> split(int parts) {
+        long end = length;
+        long total = count;
+        List<Cursor> cursors = new ArrayList<>(parts);
+        long perPart = Math.max(1, (total + parts - 1) / parts);
+
+        long offset = HEADER_SIZE;
+        for (long first = 0; first < total; first += perPart) {
+            long records = Math.min(perPart, total - first);
+            long partEnd;
+            if (packed) {
+                partEnd = offset + records * 8;
+            } else {
+                partEnd = offset;
+                for (long r = 0; r < records; r++) {
+                    partEnd += recordLength(getLong(partEnd));
+                }
+            }
+            cursors.add(new Cursor(offset, Math.min(partEnd, end), records));
+            offset = partEnd;
+        }
+        return cursors;
+    }
+
+    /* Scrive su disco le modifiche ai blocchi mappati */
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /* Chiude il registro: in scrittura il file viene prima riportato alla lunghezza dei dati confermati */
+    @Override
+    public void close() throws IOException {
+        if (writable) {
+            force();
+            try {
+                channel.truncate(length);
+            } catch (IOException e) {
+                // Alcuni sistemi non permettono di troncare un file mappato: i byte in più sono comunque ignorati grazie all'intestazione
+            }
+        }
+        chunks.clear();
+        channel.close();
+    }
+
+    private static void checkHeader(MappedByteBuffer header) {
+        if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+            throw new IllegalArgumentException("Il file non è un registro di partite (o è di una versione non supportata)");
+        }
+    }
+
+    /* Controllo della griglia: la dimensione deve stare nel byte dell'intestazione e le mosse di un round nei 9 bit dei record */
+    private static void checkGeometry(int size, int winLength) {
+        if (size < 1 || (long) size * size > MAX_CELLS || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Griglia non supportata dal registro: " + size + "x" + size + " con allineamento " + winLength
+                    + " (al più " + MAX_CELLS + " celle)");
+        }
+    }
+
+    /* Lunghezza in byte del record con l'intestazione passata */
+    private long recordLength(long header) {
+        int moves = (int) ((header >>> 15) & 0x1FF);
+        return packed ? 8 : 8 + 8L * ((moves + 3) / 4);
+    }
+
+    private void putLong(long offset, long value) {
+        chunk((int) (offset >>> CHUNK_SHIFT)).putLong((int) (offset & (CHUNK_SIZE - 1)), value);
+    }
+
+    private long getLong(long offset) {
+        return chunk((int) (offset >>> CHUNK_SHIFT)).getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    /* Blocco di indice passato, mappato al primo accesso: in scrittura la mappatura estende il file, in lettura si ferma alla sua fine */
+    private MappedByteBuffer chunk(int index) {
+        while (chunks.size() <= index) {
+            synchronized (chunks) {
+                if (chunks.size() > index) {
+                    break;
+                }
+                try {
+                    long start = (long) chunks.size() * CHUNK_SIZE;
+                    MappedByteBuffer chunk = writable
+                            ? channel.map(FileChannel.MapMode.READ_WRITE, start, CHUNK_SIZE)
+                            : channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, channel.size() - start));
+                    chunk.order(ByteOrder.LITTLE_ENDIAN);
+                    chunks.add(chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return chunks.get(index);
+    }
+
+    private static long resultCode(BoardStatus result) {
+        return switch (result) {
+            case WIN_X -> 0;
+            case WIN_O -> 1;
+            case DRAW -> 2;
+            default -> throw new IllegalArgumentException("Il round non è concluso: " + result);
+        };
+    }
+
+    /* Indice della sequenza di mosse tra tutte le sequenze di celle distinte della stessa lunghezza */
+    private static long permutationIndex(Board board) {
+        long index = 0;
+        long radix = 1;
+        int used = 0;
+        for (int i = 0; i < board.getMoveCount(); i++) {
+            int cell = board.getMoveAt(i);
+            int rank = Integer.bitCount(~used & ((1 << cell) - 1));     // celle libere che precedono quella giocata
+            index += rank * radix;
+            radix *= 9 - i;
+            used |= 1 << cell;
+        }
+        return index;
+    }
+
+    /* Cursore in avanti su un intervallo di record: next() avanza al record successivo, e i getter leggono i campi del record corrente
+    *  direttamente dal file mappato, senza creare alcun oggetto. Non è thread-safe: ogni thread deve usare il proprio cursore */
+    public final class Cursor {
+
+        private long offset;
+        private final long end;
+        private final long records;
+
+        private long header;
+        private final int[] moves = new int[size * size];   // mosse del record corrente, decodificate da next()
+
+        private Cursor(long start, long end, long records) {
+            this.offset = start;
+            this.end = end;
+            this.records = records;
+        }
+
+        /* Avanza al record successivo, ritorna false se i record sono finiti */
+        public boolean next() {
+            if (offset >= end) {
+                return false;
+            }
+            header = getLong(offset);
+            int count = getMoveCount();
+
+            if (packed) {
+                long index = header >>> 24;
+                int used = 0;
+                for (int i = 0; i < count; i++) {
+                    int rank = (int) (index % (9 - i));
+                    index /= 9 - i;
+                    int cell = nthFree(used, rank);
+                    moves[i] = cell;
+                    used |= 1 << cell;
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    long word = getLong(offset + 8 + 8L * (i / 4));
+                    moves[i] = (int) ((word >>> (16 * (i % 4))) & 0xFFFF);
+                }
+            }
+
+            offset += recordLength(header);
+            return true;
+        }
+
+        /* Numero di record dell'intervallo del cursore */
+        public long getRecords() {
+            return records;
+        }
+
+        public BoardStatus getResult() {
+            return RESULTS[(int) (header & 3)];
+        }
+
+        public Symbol getStarter() {
+            return ((header & (1L << 2)) != 0) ? Symbol.O : Symbol.X;
+        }
+
+        public PlayerKind getPlayerX() {
+            return PlayerKind.fromCode((int) ((header >>> 3) & 0x3F));
+        }
+
+        public PlayerKind getPlayerO() {
+            return PlayerKind.fromCode((int) ((header >>> 9) & 0x3F));
+        }
+
+        /* Tipologia del giocatore con il simbolo passato */
+        public PlayerKind getPlayer(Symbol symbol) {
+            return (symbol == Symbol.X) ? getPlayerX() : getPlayerO();
+        }
+
+        public int getMoveCount() {
+            return (int) ((header >>> 15) & 0x1FF);
+        }
+
+        /* Indice (row * size + col) della cella della mossa i-esima, 0 è la prima */
+        public int getMove(int i) {
+            if (i < 0 || i >= getMoveCount()) {
+                throw new IndexOutOfBoundsException("Mossa " + i + " non presente, mosse del round: " + getMoveCount());
+            }
+            return moves[i];
+        }
+
+        /* Simbolo che ha effettuato la mossa i-esima: i giocatori si alternano a partire da chi ha iniziato */
+        public Symbol getMover(int i) {
+            Symbol starter = getStarter();
+            return (i % 2 == 0) ? starter : ((starter == Symbol.X) ? Symbol.O : Symbol.X);
+        }
+
+        /* Rigioca il round corrente sulla board passata, che viene prima svuotata */
+        public void replay(Board board) {
+            board.reset();
+            for (int i = 0; i < getMoveCount(); i++) {
+                board.applyMove(moves[i], getMover(i));
+            }
+        }
+
+        /* Cella libera di indice rank (contando solo le celle non in used) */
+        private int nthFree(int used, int rank) {
+            int free = ~used & 0x1FF;
+            for (int i = 0; i < rank; i++) {
+                free &= free - 1;
+            }
+            return Integer.numberOfTrailingZeros(free);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.brux.tris.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/* Registro in memoria di contatori e istogrammi di latenza, pensato per essere letto da fuori (ad esempio dal comando METRICS del server)
+*  nel formato testuale di Prometheus. Come in StatisticsService tutti i valori sono LongAdder, dunque ogni registrazione è un incremento
+*  senza contesa, a prescindere dal numero di thread.
+*
+*  Il registro di default (getDefault) viene consultato dalla strumentazione del motore (si veda TurnProfiler) solo se abilitato, tramite
+*  setEnabled oppure la proprietà di sistema tris.metrics=true: da disabilitato il costo per turno è la lettura di un campo volatile */
+public final class MetricsRegistry {
+
+    public static final String ENABLED_PROPERTY = "tris.metrics";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry(Boolean.getBoolean(ENABLED_PROPERTY));
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    /* Metriche indicizzate per nome ed etichette, ad esempio tris_turns_total{player="EXTREME"} */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    /* Registro abilitato, ad esempio per strumentare a mano una simulazione senza toccare quello di default */
+    public MetricsRegistry() {
+        this(true);
+    }
+
+    private MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /* Registro condiviso da tutta l'applicazione, abilitato all'avvio solo con la proprietà di sistema tris.metrics=true */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* Abilita o disabilita la registrazione da parte della strumentazione; le metriche già registrate vengono mantenute */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Contatore con il nome e le etichette passate, creato alla prima richiesta
+     * @param name Nome della metrica, per convenzione con suffisso _total
+     * @param labels Coppie nome, valore delle etichette
+     * @throws IllegalArgumentException se il nome o le etichette non sono validi
+     */
+    public Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), k -> new Counter(name, k));
+    }
+
+    /**
+     * Istogramma di latenze con il nome e le etichette passate, creato alla prima richiesta
+     * @param name Nome della metrica, per convenzione con suffisso _seconds
+     * @param labels Coppie nome, valore delle etichette
+     * @throws IllegalArgumentException se il nome o le etichette non sono validi
+     */
+    public Histogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(key(name, labels), k -> new Histogram(name, k));
+    }
+
+    /* Azzera tutte le metriche. Le metriche non vengono mai eliminate, dunque chi ne mantiene un riferimento (si veda TurnProfiler)
+    *  continua a registrare su quelle esposte da dump */
+    public void clear() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Scrive tutte le metriche nel formato testuale di Prometheus, ordinate per nome. I valori vengono letti senza fermare chi registra,
+     * dunque metriche diverse (o i bucket di uno stesso istogramma) possono essere lette in istanti leggermente diversi
+     * @param out Destinazione, ad esempio uno StringBuilder o un Writer
+     */
+    public void dump(Appendable out) throws IOException {
+        String type = null;
+        for (Counter counter : sorted(counters.values(), c -> c.name, c -> c.key)) {
+            if (!counter.name.equals(type)) {
+                type = counter.name;
+                out.append("# TYPE ").append(type).append(" counter\n");
+            }
+            out.append(counter.key).append(' ').append(Long.toString(counter.get())).append('\n');
+        }
+        for (Histogram histogram : sorted(histograms.values(), h -> h.name, h -> h.key)) {
+            if (!histogram.name.equals(type)) {
+                type = histogram.name;
+                out.append("# TYPE ").append(type).append(" histogram\n");
+            }
+            histogram.dump(out);
+        }
+    }
+
+    /* Variante di dump che ritorna il testo */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            dump(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);     // non accade con uno StringBuilder
+        }
+        return sb.toString();
+    }
+
+    /* Metriche ordinate per nome e poi per chiave, così che quelle con lo stesso nome siano consecutive */
+    private static <M> List<M> sorted(Collection<M> metrics, Function<M, String> name, Function<M, String> key) {
+        return metrics.stream().sorted(Comparator.comparing(name).thenComparing(key)).toList();
+    }
+
+    /* Chiave della metrica nel formato di Prometheus: nome{etichetta="valore",...} */
+    private static String key(String name, String[] labels) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Nome di metrica non valido: " + name);
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Le etichette vanno passate a coppie nome, valore");
+        }
+        if (labels.length == 0) {
+            return name;
+        }
+
+        StringBuilder sb = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!NAME.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Nome di etichetta non valido: " + labels[i]);
+            }
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    /* Contatore monotono */
+    public static final class Counter {
+        private final String name;
+        private final String key;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        /* Incrementa il contatore della quantità passata (non negativa) */
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        private void reset() {
+            value.reset();
+        }
+    }
+
+    /* Istogramma di durate a bucket esponenziali: il bucket i raccoglie le durate fino a 2^i microsecondi (da 1 µs a circa 17 s), l'ultimo
+    *  tutte le altre. La registrazione costa un incremento, senza allocazioni; i quantili sono approssimati per eccesso al limite del
+    *  bucket in cui cadono, più che sufficiente per distinguere una mossa da microsecondi da una da secondi */
+    public static final class Histogram {
+        private static final int BUCKETS = 26;
+        private static final long UNIT = 1000;     // nanosecondi del primo bucket
+
+        private final String name;
+        private final String key;
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram(String name, String key) {
+            this.name = name;
+            this.key = key;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /* Registra una durata in nanosecondi */
+        public void record(long nanos) {
+            nanos = Math.max(nanos, 0);
+            int bucket = (nanos <= UNIT) ? 0 : 64 - Long.numberOfLeadingZeros((nanos - 1) / UNIT);
+            buckets[Math.min(bucket, BUCKETS - 1)].increment();
+            count.increment();
+            sum.add(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /* Somma delle durate registrate, in nanosecondi */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Quantile approssimato delle durate registrate
+         * @param quantile Valore tra 0 e 1, ad esempio 0.99
+         * @return Limite superiore in nanosecondi del bucket in cui cade il quantile (Long.MAX_VALUE se è l'ultimo), 0 se vuoto
+         * @throws IllegalArgumentException se quantile non è tra 0 e 1
+         */
+        public long getQuantile(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile non valido: " + quantile);
+            }
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS - 1; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return UNIT << i;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+        }
+
+        /* Bucket cumulativi, somma e conteggio nel formato di Prometheus, in secondi */
+        private void dump(Appendable out) throws IOException {
+            int brace = key.indexOf('{');
+            String labels = (brace < 0) ? "" : key.substring(brace + 1, key.length() - 1) + ",";
+            String suffix = (brace < 0) ? "" : key.substring(brace);
+
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulative += buckets[i].sum();
+                String le = (i == BUCKETS - 1) ? "+Inf" : String.format(Locale.ROOT, "%.6f", (UNIT << i) / 1e9);
+                out.append(name).append("_bucket{").append(labels).append("le=\"").append(le).append("\"} ")
+                        .append(Long.toString(cumulative)).append('\n');
+            }
+            out.append(name).append("_sum").append(suffix).append(' ')
+                    .append(String.format(Locale.ROOT, "%.9f", sum.sum() / 1e9)).append('\n');
+            out.append(name).append("_count").append(suffix).append(' ').append(Long.toString(cumulative)).append('\n');
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.brux.tris.service;
+
+import com.brux.tris.model.Symbol;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/* Punteggio della partita: vittorie di ciascun simbolo e pareggi. I contatori sono LongAdder, dunque lo stesso ScoreKeeper può essere
+*  aggiornato da più thread (ad esempio più partite simulate in parallelo) senza contesa; reset non è atomico rispetto agli incrementi
+*  concorrenti */
+public class ScoreKeeper {
+    private final LongAdder scoreX = new LongAdder();     // score del giocatore con X
+    private final LongAdder scoreO = new LongAdder();     // score del giocatore con O
+    private final LongAdder draws = new LongAdder();      // round terminati in pareggio
+
+    public ScoreKeeper() {
+        reset();
+    }
+
+    public void reset() {
+        scoreX.reset();
+        scoreO.reset();
+        draws.reset();
+    }
+
+    public int getScore(Symbol symbol) {
+        return (symbol == Symbol.X) ? scoreX.intValue() : scoreO.intValue();
+    }
+
+    public int getDraws() {
+        return draws.intValue();
+    }
+
+    public void increment(Symbol symbol) {
+        if (symbol == Symbol.X) {
+            scoreX.increment();
+        } else if (symbol == Symbol.O) {
+            scoreO.increment();
+        }
+    }
+
+    public void incrementDraws() {
+        draws.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "ScoreKeeper{" +
+                "X=" + scoreX +
+                ", O=" + scoreO +
+                ", draws=" + draws +
+                '}';
+    }
+}
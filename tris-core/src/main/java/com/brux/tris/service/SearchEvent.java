@@ -0,0 +1,48 @@
+package com.brux.tris.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/* Evento di JDK Flight Recorder per una ricerca di AlphaBetaSearch o di MctsBot: mentre TurnEvent misura l'intera mossa, questo evento
+*  riporta quanto a fondo è arrivata la ricerca e se è stata interrotta dal budget */
+@Name("com.brux.tris.Search")
+@Label("Ricerca")
+@Category({"Tris", "Motore"})
+@Description("Ricerca della mossa migliore")
+@StackTrace(false)
+public final class SearchEvent extends Event {
+
+    @Label("Motore")
+    String engine;
+
+    @Label("Profondità")
+    @Description("Ultima profondità completata (0 per le ricerche esatte e per MCTS)")
+    int depth;
+
+    @Label("Nodi cercati")
+    @Description("Nodi (o playout per MCTS) visitati dalla ricerca")
+    long nodes;
+
+    @Label("Hit della cache")
+    long tableHits;
+
+    @Label("Interrotta")
+    @Description("Vero se la ricerca è stata fermata dal budget prima di concludersi")
+    boolean aborted;
+
+    /* Completa l'evento con i risultati della ricerca e lo registra, se la registrazione è in corso; l'evento va iniziato con begin */
+    public void record(String engine, int depth, long nodes, long tableHits, boolean aborted) {
+        if (shouldCommit()) {
+            this.engine = engine;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.tableHits = tableHits;
+            this.aborted = aborted;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.brux.tris.service;
+
+import com.brux.tris.ai.PlayerKind;
+import com.brux.tris.model.BoardStatus;
+import com.brux.tris.model.GameRecorder;
+import com.brux.tris.model.Symbol;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Statistiche persistenti dei round giocati: vittorie, sconfitte e pareggi per simbolo, per tipologia di giocatore e per sessione (una
+*  sessione è ad esempio una partita della UI o un torneo). Tutti i contatori sono LongAdder, dunque il servizio può essere aggiornato da
+*  più thread e da più sessioni senza contesa. Se associato ad un file, lo stato viene caricato all'apertura e salvato periodicamente da un
+*  thread in background solo se nel frattempo è cambiato (write-behind): un round registrato non causa alcun I/O. Il salvataggio scrive
+*  un file temporaneo che sostituisce poi quello precedente, così che un'interruzione non lasci mai un file a metà */
+public final class StatisticsService implements AutoCloseable {
+
+    private final Tally[] symbols = {new Tally(), new Tally()};
+    private final Tally[] players = new Tally[PlayerKind.values().length];
+    private final Map<String, Tally> sessions = new ConcurrentHashMap<>();
+
+    /* Round registrati in totale e fino all'ultimo salvataggio, per capire se c'è qualcosa da scrivere */
+    private final LongAdder updates = new LongAdder();
+    private long savedUpdates;
+
+    private final Path file;
+    private final ScheduledExecutorService writer;
+
+    /* Servizio solo in memoria, senza persistenza */
+    public StatisticsService() {
+        this(null, null);
+    }
+
+    private StatisticsService(Path file, Duration flushInterval) {
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Tally();
+        }
+        this.file = file;
+
+        if (file == null) {
+            this.writer = null;
+            return;
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "statistics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = flushInterval.toMillis();
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                // Si riprova al prossimo intervallo, i contatori in memoria restano validi
+                System.err.println("Salvataggio delle statistiche fallito: " + e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Apre il servizio associato al file passato, caricandone le statistiche se il file esiste già
+     * @param file File delle statistiche (formato Properties)
+     * @param flushInterval Intervallo tra un salvataggio e il successivo
+     * @throws IOException se il file esiste ma non può essere letto
+     * @throws IllegalArgumentException se l'intervallo non è positivo
+     */
+    public static StatisticsService open(Path file, Duration flushInterval) throws IOException {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("L'intervallo di salvataggio deve essere positivo");
+        }
+        Properties snapshot = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                snapshot.load(reader);
+            }
+        }
+
+        StatisticsService service = new StatisticsService(file, flushInterval);
+        service.restore(snapshot);
+        return service;
+    }
+
+    /**
+     * Registra l'esito di un round
+     * @param session Identificativo della sessione in cui si è giocato il round
+     * @param playerX Tipologia del giocatore con X
+     * @param playerO Tipologia del giocatore con O
+     * @param result Esito del round, non ONGOING
+     */
+    public void record(String session, PlayerKind playerX, PlayerKind playerO, BoardStatus result) {
+        if (result == BoardStatus.ONGOING) {
+            throw new IllegalArgumentException("Il round non è concluso");
+        }
+        record(getSession(session), playerX, playerO, result);
+    }
+
+    /* Osservatore da impostare su una Game (Game.setRecorder) per registrarne tutti i round nella sessione passata */
+    public GameRecorder recorder(String session) {
+        Tally tally = getSession(session);   // creata subito, così che la sessione compaia anche senza round
+        return (playerX, playerO, starter, result, board) -> record(tally, PlayerKind.of(playerX), PlayerKind.of(playerO), result);
+    }
+
+    private void record(Tally session, PlayerKind playerX, PlayerKind playerO, BoardStatus result) {
+        Tally.Outcome forX = Tally.outcomeFor(Symbol.X, result);
+        Tally.Outcome forO = Tally.outcomeFor(Symbol.O, result);
+
+        symbols[Symbol.X.ordinal()].add(forX, 1);
+        symbols[Symbol.O.ordinal()].add(forO, 1);
+        players[playerX.getCode()].add(forX, 1);
+        players[playerO.getCode()].add(forO, 1);
+        session.add(forX, 1);
+        updates.increment();
+    }
+
+    /* Risultati dei round giocati con il simbolo passato */
+    public Tally getSymbol(Symbol symbol) {
+        if (symbol == Symbol.EMPTY) {
+            throw new IllegalArgumentException("Simbolo non valido: " + symbol);
+        }
+        return symbols[symbol.ordinal()];
+    }
+
+    /* Risultati dei round giocati dalla tipologia di giocatore passata, con qualunque simbolo */
+    public Tally getPlayer(PlayerKind player) {
+        return players[player.getCode()];
+    }
+
+    /* Risultati della sessione dal punto di vista del giocatore con X, creata vuota se non ancora presente */
+    public Tally getSession(String session) {
+        return sessions.computeIfAbsent(session, s -> new Tally());
+    }
+
+    /**
+     * Salva su file le statistiche se sono cambiate dall'ultimo salvataggio. Viene chiamato periodicamente dal thread in background, ma può
+     * essere invocato anche esplicitamente; non ha effetto se il servizio non è associato ad un file.
+     * @throws IOException se il file non può essere scritto
+     */
+    public synchronized void flush() throws IOException {
+        long current = updates.sum();
+        if (file == null || current == savedUpdates) {
+            return;
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp)) {
+                snapshot().store(out, "Statistiche Tris");
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        savedUpdates = current;
+    }
+
+    /* Interrompe i salvataggi periodici ed effettua l'ultimo salvataggio */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        flush();
+    }
+
+    /* Fotografia dei contatori, con chiavi del tipo symbol.X.wins, player.EXTREME.draws, session.<id>.losses */
+    private Properties snapshot() {
+        Properties properties = new Properties();
+        for (Symbol symbol : new Symbol[]{Symbol.X, Symbol.O}) {
+            symbols[symbol.ordinal()].export("symbol." + symbol, properties);
+        }
+        for (PlayerKind player : PlayerKind.values()) {
+            players[player.getCode()].export("player." + player, properties);
+        }
+        for (Map.Entry<String, Tally> session : sessions.entrySet()) {
+            session.getValue().export("session." + session.getKey(), properties);
+        }
+        return properties;
+    }
+
+    /* Somma ai contatori quelli di un salvataggio precedente; le chiavi non riconosciute vengono ignorate */
+    private void restore(Properties snapshot) {
+        for (String key : snapshot.stringPropertyNames()) {
+            int first = key.indexOf('.');
+            int last = key.lastIndexOf('.');
+            if (first < 0 || first == last) {
+                continue;
+            }
+            String scope = key.substring(0, first);
+            String name = key.substring(first + 1, last);
+            Tally.Outcome outcome;
+            long value;
+            try {
+                outcome = Tally.Outcome.fromKey(key.substring(last + 1));
+                value = Long.parseLong(snapshot.getProperty(key).trim());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            try {
+                switch (scope) {
+                    case "symbol" -> getSymbol(Symbol.valueOf(name)).add(outcome, value);
+                    case "player" -> getPlayer(PlayerKind.valueOf(name)).add(outcome, value);
+                    case "session" -> getSession(name).add(outcome, value);
+                    default -> { }
+                }
+            } catch (IllegalArgumentException e) {
+                // simbolo o tipologia sconosciuti: la chiave viene ignorata
+            }
+        }
+    }
+
+    /* Contatori di vittorie, sconfitte e pareggi di un simbolo, di una tipologia di giocatore o di una sessione */
+    public static final class Tally {
+
+        private enum Outcome {
+            WINS, LOSSES, DRAWS;
+
+            static Outcome fromKey(String key) {
+                return valueOf(key.toUpperCase(Locale.ROOT));
+            }
+        }
+
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder losses = new LongAdder();
+        private final LongAdder draws = new LongAdder();
+
+        private Tally() {
+        }
+
+        /* Esito del round per il giocatore con il simbolo passato */
+        private static Outcome outcomeFor(Symbol symbol, BoardStatus result) {
+            if (result == BoardStatus.DRAW) {
+                return Outcome.DRAWS;
+            }
+            boolean xWon = result == BoardStatus.WIN_X;
+            return (xWon == (symbol == Symbol.X)) ? Outcome.WINS : Outcome.LOSSES;
+        }
+
+        private void add(Outcome outcome, long value) {
+            switch (outcome) {
+                case WINS -> wins.add(value);
+                case LOSSES -> losses.add(value);
+                case DRAWS -> draws.add(value);
+            }
+        }
+
+        private void export(String prefix, Properties properties) {
+            properties.setProperty(prefix + ".wins", Long.toString(wins.sum()));
+            properties.setProperty(prefix + ".losses", Long.toString(losses.sum()));
+            properties.setProperty(prefix + ".draws", Long.toString(draws.sum()));
+        }
+
+        public long getWins() {
+            return wins.sum();
+        }
+
+        public long getLosses() {
+            return losses.sum();
+        }
+
+        public long getDraws() {
+            return draws.sum();
+        }
+
+        public long getRounds() {
+            return getWins() + getLosses() + getDraws();
+        }
+
+        @Override
+        public String toString() {
+            return "vittorie=" + getWins() + " sconfitte=" + getLosses() + " pareggi=" + getDraws();
+        }
+    }
+}
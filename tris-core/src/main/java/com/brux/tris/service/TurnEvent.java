@@ -0,0 +1,51 @@
+package com.brux.tris.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/* Evento di JDK Flight Recorder per la scelta di una mossa da parte di un giocatore (si veda TurnProfiler): la durata dell'evento è il
+*  tempo di makeMove. Abilitato di default nelle registrazioni, ad esempio con -XX:StartFlightRecording; senza registrazione in corso non
+*  viene nemmeno creato */
+@Name("com.brux.tris.Turn")
+@Label("Turno")
+@Category({"Tris", "Motore"})
+@Description("Scelta di una mossa da parte di un giocatore")
+@StackTrace(false)
+public final class TurnEvent extends Event {
+
+    @Label("Giocatore")
+    @Description("Tipologia del giocatore (PlayerKind)")
+    String player;
+
+    @Label("Simbolo")
+    String symbol;
+
+    @Label("Dimensione della griglia")
+    int boardSize;
+
+    @Label("Numero della mossa")
+    @Description("Mossa del round, a partire da 1")
+    int moveNumber;
+
+    @Label("Nodi cercati")
+    @Description("Nodi (o playout) visitati dalla ricerca del bot durante la mossa")
+    long nodes;
+
+    @Label("Hit della cache")
+    @Description("Nodi risolti dalla tabella delle trasposizioni durante la mossa")
+    long tableHits;
+
+    @Label("Memoria allocata")
+    @Description("Byte allocati dal thread che ha scelto la mossa (esclusi eventuali thread di ricerca paralleli)")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    @Label("Risposta precalcolata")
+    @Description("Mossa servita dalle risposte calcolate dal Ponderer durante il turno dell'avversario, senza ricerca")
+    boolean pondered;
+}
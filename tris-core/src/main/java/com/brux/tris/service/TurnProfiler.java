@@ -0,0 +1,151 @@
+package com.brux.tris.service;
+
+import com.brux.tris.ai.PlayerKind;
+import com.brux.tris.ai.Ponderer;
+import com.brux.tris.model.*;
+
+import java.lang.management.ManagementFactory;
+
+/* Strumentazione della scelta delle mosse, utilizzata da Game.playTurn, da Player.makeMoveAsync e dai turni del bot della UI (tramite il
+*  suo Ponderer, così che siano misurate sia le risposte precalcolate sia quelle cercate sul momento): per ogni mossa registra un TurnEvent
+*  (se è in corso una registrazione di JDK Flight Recorder che lo abilita) e aggiorna il MetricsRegistry di default (se abilitato) con
+*  latenza, nodi cercati, hit della cache e memoria allocata per tipologia di giocatore. Quando nessuno dei due è attivo la mossa viene
+*  chiesta direttamente al giocatore: il costo è la lettura di due flag, e l'evento, mai pubblicato, non viene nemmeno allocato dal JIT.
+*
+*  Nodi e hit sono la differenza dei contatori cumulativi del bot (BotPlayer.getSearchNodes e getTableHits) prima e dopo la mossa, la
+*  memoria allocata quella del thread corrente: non comprende eventuali thread di ricerca paralleli (ParallelSearch, MctsBot con più
+*  thread) */
+public final class TurnProfiler {
+
+    /* Metriche del registro di default per tipologia di giocatore, indicizzate per ordinale */
+    private static final TurnMetrics[] BY_KIND = new TurnMetrics[PlayerKind.values().length];
+
+    private TurnProfiler() {
+    }
+
+    /**
+     * Chiede la mossa al giocatore, misurandola se la strumentazione è attiva
+     * @param player Giocatore che deve muovere
+     * @param board Board su cui scegliere la mossa
+     * @param budget Budget passato a Player.makeMove
+     * @return La mossa del giocatore, null se il giocatore umano non ha ancora scelto (in tal caso non viene registrato nulla)
+     */
+    public static Move makeMove(Player player, Board board, SearchBudget budget) {
+        return measure(player, null, board, budget);
+    }
+
+    /**
+     * Chiede la mossa del bot al Ponderer, che la serve dalle risposte precalcolate o la cerca sul momento, misurandola se la
+     * strumentazione è attiva. Le risposte precalcolate vengono registrate come turni senza nodi, contati anche in tris_ponder_hits_total
+     * @param ponderer Ponderer del bot che deve muovere
+     * @param board Board su cui scegliere la mossa, con il bot al tratto
+     * @param budget Budget passato al bot qualora la risposta non sia già pronta
+     * @return La mossa del bot
+     */
+    public static Move makeMove(Ponderer ponderer, Board board, SearchBudget budget) {
+        return measure(ponderer.getBot(), ponderer, board, budget);
+    }
+
+    private static Move measure(Player player, Ponderer ponderer, Board board, SearchBudget budget) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        TurnEvent event = new TurnEvent();
+        if (!metrics.isEnabled() && !event.isEnabled()) {
+            return (ponderer != null) ? ponderer.makeMove(board, budget) : player.makeMove(board, budget);
+        }
+
+        BotPlayer bot = (player instanceof BotPlayer b) ? b : null;
+        int moveNumber = board.getMoveCount() + 1;
+        long startNodes = (bot != null) ? bot.getSearchNodes() : 0;
+        long startHits = (bot != null) ? bot.getTableHits() : 0;
+        long startPondered = (ponderer != null) ? ponderer.getHits() : 0;
+        long startAllocated = allocatedBytes();
+        long start = System.nanoTime();
+        event.begin();
+
+        Move move = (ponderer != null) ? ponderer.makeMove(board, budget) : player.makeMove(board, budget);
+
+        event.end();
+        long elapsed = System.nanoTime() - start;
+        if (move == null) {
+            return null;
+        }
+        long nodes = (bot != null) ? bot.getSearchNodes() - startNodes : 0;
+        long hits = (bot != null) ? bot.getTableHits() - startHits : 0;
+        long allocated = (startAllocated < 0) ? 0 : allocatedBytes() - startAllocated;
+        boolean pondered = ponderer != null && ponderer.getHits() != startPondered;
+        PlayerKind kind = PlayerKind.of(player);
+
+        if (event.shouldCommit()) {
+            event.player = kind.name();
+            event.symbol = player.getSymbol().name();
+            event.boardSize = board.getSize();
+            event.moveNumber = moveNumber;
+            event.nodes = nodes;
+            event.tableHits = hits;
+            event.allocated = allocated;
+            event.pondered = pondered;
+            event.commit();
+        }
+        if (metrics.isEnabled()) {
+            TurnMetrics turn = turnMetrics(metrics, kind);
+            turn.latency.record(elapsed);
+            turn.turns.increment();
+            turn.nodes.add(nodes);
+            turn.tableHits.add(hits);
+            turn.allocated.add(allocated);
+            if (pondered) {
+                turn.ponderHits.increment();
+            }
+        }
+        return move;
+    }
+
+    /* Metriche della tipologia passata, cercate nel registro solo alla prima mossa misurata: due thread che le creano insieme ottengono
+    *  comunque le stesse istanze dal registro, dunque la corsa sull'array è innocua */
+    private static TurnMetrics turnMetrics(MetricsRegistry metrics, PlayerKind kind) {
+        TurnMetrics turn = BY_KIND[kind.ordinal()];
+        if (turn == null) {
+            turn = new TurnMetrics(metrics, kind.name());
+            BY_KIND[kind.ordinal()] = turn;
+        }
+        return turn;
+    }
+
+    /* Byte allocati finora dal thread corrente, -1 se non disponibile */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = AllocationHolder.THREADS;
+        return (threads != null) ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static final class TurnMetrics {
+        private final MetricsRegistry.Histogram latency;
+        private final MetricsRegistry.Counter turns;
+        private final MetricsRegistry.Counter nodes;
+        private final MetricsRegistry.Counter tableHits;
+        private final MetricsRegistry.Counter allocated;
+        private final MetricsRegistry.Counter ponderHits;
+
+        private TurnMetrics(MetricsRegistry metrics, String player) {
+            this.latency = metrics.histogram("tris_turn_seconds", "player", player);
+            this.turns = metrics.counter("tris_turns_total", "player", player);
+            this.nodes = metrics.counter("tris_search_nodes_total", "player", player);
+            this.tableHits = metrics.counter("tris_table_hits_total", "player", player);
+            this.allocated = metrics.counter("tris_allocated_bytes_total", "player", player);
+            this.ponderHits = metrics.counter("tris_ponder_hits_total", "player", player);
+        }
+    }
+
+    /* Bean per la memoria allocata dal thread corrente (null se la JVM non la misura), inizializzato al primo turno misurato così che
+    *  la strumentazione disattivata non carichi nemmeno il supporto JMX */
+    private static final class AllocationHolder {
+        private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+        private static com.sun.management.ThreadMXBean allocationBean() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.ai.PerfectPlayTable;
+
+import java.util.random.RandomGenerator;
+
+/* Strategia di gioco dei bot di una GameArena: sceglie la mossa lavorando direttamente sulle maschere di bit della partita, senza creare
+*  board o mosse. Le implementazioni devono essere prive di stato (o thread-safe), dato che la stessa strategia viene usata in parallelo
+*  su blocchi diversi dell'arena */
+@FunctionalInterface
+public interface ArenaPolicy {
+
+    /**
+     * Sceglie la prossima mossa del giocatore al tratto
+     * @param arena Arena della partita, da cui ricavare la geometria della griglia
+     * @param mine Maschera delle celle del giocatore al tratto (bit di indice row * size + col)
+     * @param theirs Maschera delle celle dell'avversario
+     * @param random Generatore del thread che sta facendo avanzare la partita
+     * @return Indice di una cella libera
+     */
+    int chooseCell(GameArena arena, long mine, long theirs, RandomGenerator random);
+
+    /* Mossa uniformemente casuale tra le celle libere, come EasyBot */
+    static ArenaPolicy random() {
+        return (arena, mine, theirs, random) -> randomCell(arena.getEmptyMask(mine, theirs), random);
+    }
+
+    /* Vince se possibile, altrimenti blocca la vittoria dell'avversario, altrimenti gioca a caso: la strategia di IntermediateBot senza la
+    *  preferenza per centro e angoli */
+    static ArenaPolicy winOrBlock() {
+        return (arena, mine, theirs, random) -> {
+            long empty = arena.getEmptyMask(mine, theirs);
+            int cell = arena.findWinningCell(mine, empty);
+            if (cell < 0) {
+                cell = arena.findWinningCell(theirs, empty);
+            }
+            return (cell >= 0) ? cell : randomCell(empty, random);
+        };
+    }
+
+    /**
+     * Gioco perfetto tramite PerfectPlayTable, scegliendo a caso tra le mosse ottimali
+     * @throws IllegalStateException alla prima mossa se l'arena non è relativa al tris classico 3x3
+     */
+    static ArenaPolicy perfect() {
+        PerfectPlayTable table = PerfectPlayTable.getInstance();
+        return (arena, mine, theirs, random) -> {
+            if (arena.getSize() != 3 || arena.getWinLength() != 3) {
+                throw new IllegalStateException("La strategia perfetta è disponibile solo sul tris 3x3");
+            }
+            return randomCell(table.getBestMoves((int) mine, (int) theirs), random);
+        };
+    }
+
+    /* Cella uniformemente casuale tra i bit accesi della maschera, che non deve essere vuota */
+    static int randomCell(long mask, RandomGenerator random) {
+        for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;     // spegne il bit più basso
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
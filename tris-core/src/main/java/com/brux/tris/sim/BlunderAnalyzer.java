@@ -0,0 +1,159 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.ai.PerfectPlayTable;
+import com.brux.tris.ai.PlayerKind;
+import com.brux.tris.ai.PositionEvaluator;
+import com.brux.tris.model.*;
+import com.brux.tris.service.GameLog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Analisi degli errori commessi nelle partite di un registro (GameLog): ogni round viene rigiocato mossa per mossa e, tramite un
+*  valutatore esatto, si confronta il valore teorico della posizione per chi muove prima e dopo la sua mossa. Le mosse che lo peggiorano
+*  (da vinta a patta o persa, da patta a persa) sono errori, aggregati per tipologia di giocatore e per posizione. I record vengono
+*  suddivisi in blocchi scorsi in parallelo, ognuno con la propria board e i propri contatori, fusi nel risultato solo alla fine; le
+*  valutazioni sono condivise tra i thread (PerfectPlayTable sul 3x3, tabella delle trasposizioni comune sulle altre griglie) */
+public class BlunderAnalyzer {
+
+    /* Blocchi per thread: più blocchi dei thread bilanciano il carico quando le partite hanno lunghezze diverse */
+    private static final int PARTS_PER_THREAD = 4;
+
+    private final int threads;
+    private final PositionEvaluator evaluator;
+
+    public BlunderAnalyzer(int threads) {
+        this(threads, new PositionEvaluator());
+    }
+
+    /**
+     * @param threads Numero di thread dell'analisi
+     * @param evaluator Valutatore delle posizioni, riutilizzabile tra più analisi dello stesso tipo di griglia
+     * @throws IllegalArgumentException se threads è minore di 1
+     */
+    public BlunderAnalyzer(int threads, PositionEvaluator evaluator) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads deve essere almeno 1");
+        }
+        this.threads = threads;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Analizza tutti i round confermati del registro
+     * @param log Registro da analizzare, aperto in lettura o in scrittura
+     * @return Errori per tipologia di giocatore e per posizione
+     */
+    public BlunderReport analyze(GameLog log) {
+        AtomicLongArray counts = new AtomicLongArray(PlayerKind.values().length * BlunderReport.FIELDS);
+        Map<Long, BlunderReport.PositionStats> positions = new ConcurrentHashMap<>();
+        List<GameLog.Cursor> parts = log.split(threads * PARTS_PER_THREAD);
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(parts.size());
+            for (GameLog.Cursor cursor : parts) {
+                futures.add(pool.submit(() -> analyzePart(cursor, log.getSize(), log.getWinLength(), counts, positions)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analisi interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante l'analisi", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long games = 0;
+        for (GameLog.Cursor cursor : parts) {
+            games += cursor.getRecords();
+        }
+        return new BlunderReport(games, counts, positions, System.nanoTime() - start);
+    }
+
+    /* Rigioca i round di un blocco contando localmente mosse ed errori, sommati a quelli complessivi solo alla fine */
+    private void analyzePart(GameLog.Cursor cursor, int size, int winLength, AtomicLongArray counts,
+                             Map<Long, BlunderReport.PositionStats> positions) {
+        Board board = new Board(size, winLength);
+        long[] local = new long[counts.length()];
+        Map<Long, BlunderReport.PositionStats> localPositions = new HashMap<>();
+
+        while (cursor.next()) {
+            board.reset();
+            // Valore della posizione per chi deve muovere: dopo ogni mossa è l'opposto di quello appena calcolato per chi ha mosso
+            int before = evaluator.value(board, cursor.getStarter());
+            for (int i = 0; i < cursor.getMoveCount(); i++) {
+                Symbol mover = cursor.getMover(i);
+                PlayerKind player = cursor.getPlayer(mover);
+
+                // Le posizioni simmetriche (anche a colori invertiti) sono la stessa posizione per chi muove
+                long hash = board.getCanonicalHash(mover);
+                BlunderReport.PositionStats stats = localPositions.get(hash);
+                if (stats == null) {
+                    stats = new BlunderReport.PositionStats(hash, describe(board));
+                    localPositions.put(hash, stats);
+                }
+
+                board.applyMove(cursor.getMove(i), mover);
+                // Valore per chi ha mosso: opposto di quello per l'avversario, ora al tratto
+                int after = -evaluator.value(board, opposite(mover));
+
+                local[BlunderReport.indexOf(player, 0)]++;
+                boolean blunder = after < before;
+                if (blunder) {
+                    local[BlunderReport.indexOf(player, 1 + classify(before, after).ordinal())]++;
+                }
+
+                stats.add(1, blunder ? 1 : 0);
+                before = -after;
+            }
+        }
+
+        for (int i = 0; i < local.length; i++) {
+            if (local[i] != 0) {
+                counts.addAndGet(i, local[i]);
+            }
+        }
+        for (BlunderReport.PositionStats stats : localPositions.values()) {
+            positions.merge(stats.getHash(), stats, BlunderReport.PositionStats::merge);
+        }
+    }
+
+    private static BlunderReport.Kind classify(int before, int after) {
+        if (before == PerfectPlayTable.DRAW) {
+            return BlunderReport.Kind.DRAW_TO_LOSS;
+        }
+        return (after == PerfectPlayTable.DRAW) ? BlunderReport.Kind.WIN_TO_DRAW : BlunderReport.Kind.WIN_TO_LOSS;
+    }
+
+    private static Symbol opposite(Symbol symbol) {
+        return (symbol == Symbol.X) ? Symbol.O : Symbol.X;
+    }
+
+    /* Rappresentazione testuale della board, con le righe separate da '/' e '.' per le celle libere */
+    private static String describe(Board board) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < board.getSize(); row++) {
+            if (row > 0) {
+                sb.append('/');
+            }
+            for (int col = 0; col < board.getSize(); col++) {
+                Symbol symbol = board.getCell(row, col);
+                sb.append((symbol == Symbol.EMPTY) ? '.' : symbol.name().charAt(0));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,165 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.ai.PlayerKind;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Risultato dell'analisi degli errori (blunder) di un registro di partite: per ogni tipologia di giocatore il numero di mosse analizzate e
+*  di quelle che hanno peggiorato il valore teorico della posizione, e per ogni posizione (a meno di simmetrie) quante volte è stata
+*  giocata e quante volte vi si è sbagliato */
+public class BlunderReport {
+
+    /* Tipologie di errore: da vinta a patta, da vinta a persa, da patta a persa */
+    public enum Kind {
+        WIN_TO_DRAW,
+        WIN_TO_LOSS,
+        DRAW_TO_LOSS
+    }
+
+    /* Contatori per tipologia di giocatore: mosse analizzate seguite da un contatore per ogni tipologia di errore */
+    static final int FIELDS = 1 + Kind.values().length;
+
+    private final long games;
+    private final long elapsedNanos;
+
+    /* counts[kind.getCode() * FIELDS + campo] */
+    private final AtomicLongArray counts;
+
+    /* Statistiche delle posizioni, indicizzate dall'hash canonico rispetto a chi deve muovere */
+    private final Map<Long, PositionStats> positions;
+
+    BlunderReport(long games, AtomicLongArray counts, Map<Long, PositionStats> positions, long elapsedNanos) {
+        this.games = games;
+        this.counts = counts;
+        this.positions = positions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    static int indexOf(PlayerKind player, int field) {
+        return player.getCode() * FIELDS + field;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /* Mosse analizzate del giocatore passato */
+    public long getMoves(PlayerKind player) {
+        return counts.get(indexOf(player, 0));
+    }
+
+    /* Errori del tipo passato commessi dal giocatore */
+    public long getBlunders(PlayerKind player, Kind kind) {
+        return counts.get(indexOf(player, 1 + kind.ordinal()));
+    }
+
+    /* Errori di qualsiasi tipo commessi dal giocatore */
+    public long getBlunders(PlayerKind player) {
+        long total = 0;
+        for (Kind kind : Kind.values()) {
+            total += getBlunders(player, kind);
+        }
+        return total;
+    }
+
+    /* Frazione delle mosse del giocatore che sono errori, 0 se non ha mosso */
+    public double getBlunderRate(PlayerKind player) {
+        long moves = getMoves(player);
+        return (moves == 0) ? 0 : (double) getBlunders(player) / moves;
+    }
+
+    /* Numero di posizioni distinte (a meno di simmetrie) in cui è stata effettuata almeno una mossa */
+    public int getPositionCount() {
+        return positions.size();
+    }
+
+    /**
+     * Posizioni in cui sono stati commessi più errori
+     * @param limit Numero massimo di posizioni ritornate
+     * @return Posizioni ordinate per numero di errori decrescente
+     */
+    public List<PositionStats> getWorstPositions(int limit) {
+        List<PositionStats> worst = new ArrayList<>();
+        for (PositionStats stats : positions.values()) {
+            if (stats.getBlunders() > 0) {
+                worst.add(stats);
+            }
+        }
+        worst.sort(Comparator.comparingLong(PositionStats::getBlunders).reversed());
+        return worst.subList(0, Math.min(limit, worst.size()));
+    }
+
+    /* Riepilogo compatto: una riga per ogni tipologia di giocatore presente, più il throughput complessivo */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (PlayerKind player : PlayerKind.values()) {
+            if (getMoves(player) == 0) {
+                continue;
+            }
+            sb.append(String.format("%-13s mosse=%d errori=%d (%.3f%%) vinta->patta=%d vinta->persa=%d patta->persa=%d",
+                    player, getMoves(player), getBlunders(player), 100 * getBlunderRate(player),
+                    getBlunders(player, Kind.WIN_TO_DRAW), getBlunders(player, Kind.WIN_TO_LOSS), getBlunders(player, Kind.DRAW_TO_LOSS)));
+            sb.append(System.lineSeparator());
+        }
+        double seconds = elapsedNanos / 1e9;
+        sb.append(String.format("Totale: %d partite, %d posizioni in %.2f s (%.0f partite/s)", games, getPositionCount(), seconds,
+                games / seconds));
+        return sb.toString();
+    }
+
+    /* Statistiche di una posizione: quante mosse vi sono state giocate e quante di queste erano errori. La descrizione riporta la prima
+    *  occorrenza incontrata della posizione, riga per riga ('.' per le celle libere) */
+    public static final class PositionStats {
+
+        private final long hash;
+        private final String description;
+        private long visits;
+        private long blunders;
+
+        PositionStats(long hash, String description) {
+            this.hash = hash;
+            this.description = description;
+        }
+
+        void add(long visits, long blunders) {
+            this.visits += visits;
+            this.blunders += blunders;
+        }
+
+        /* Somma le statistiche della stessa posizione calcolate da un altro thread */
+        PositionStats merge(PositionStats other) {
+            add(other.visits, other.blunders);
+            return this;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getVisits() {
+            return visits;
+        }
+
+        public long getBlunders() {
+            return blunders;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s mosse=%d errori=%d", description, visits, blunders);
+        }
+    }
+}
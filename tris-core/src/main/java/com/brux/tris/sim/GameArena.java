@@ -0,0 +1,277 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.model.BoardStatus;
+import com.brux.tris.model.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+/* Arena di molte partite contemporanee memorizzate per colonne (structure of arrays): lo stato della partita i-esima è sparso negli array
+*  primitivi alla posizione i (celle delle X, celle delle O, giocatore al tratto, stato), senza alcun oggetto per partita. Su griglie fino a
+*  64 celle ogni partita occupa 18 byte, contro le centinaia di una Game con la sua Board, i giocatori e lo ScoreKeeper. Le partite avanzano
+*  in blocco tramite step, che fa muovere una volta il giocatore al tratto di ogni partita ancora in corso secondo la sua ArenaPolicy. Pensata
+*  per le simulazioni in cui conta solo il throughput; blocchi disgiunti di partite possono essere fatti avanzare da thread diversi */
+public class GameArena {
+
+    private static final byte ONGOING = (byte) BoardStatus.ONGOING.ordinal();
+    private static final BoardStatus[] STATUSES = BoardStatus.values();
+
+    /* Partite per blocco di play: abbastanza da ammortizzare il costo del task, abbastanza poche da bilanciare il carico */
+    private static final int GAMES_PER_TASK = 1 << 14;
+
+    private final int games;
+    private final int size;
+    private final int winLength;
+    private final long fullMask;
+
+    /* Stato delle partite, indicizzato dal numero della partita */
+    private final long[] maskX;
+    private final long[] maskO;
+    private final byte[] toMove;      // Symbol.ordinal() del giocatore al tratto
+    private final byte[] status;      // BoardStatus.ordinal()
+
+    /* Linee vincenti passanti per ogni cella: lines[lineStart[cell]] ... lines[lineStart[cell + 1] - 1], come maschere di bit */
+    private final int[] lineStart;
+    private final long[] lines;
+
+    /**
+     * @param games Numero di partite dell'arena, tutte inizialmente vuote con X al tratto
+     * @param size Dimensione della griglia
+     * @param winLength Numero di simboli da allineare per vincere
+     * @throws IllegalArgumentException se la griglia ha più di 64 celle o i parametri non sono validi
+     */
+    public GameArena(int games, int size, int winLength) {
+        if (games < 1) {
+            throw new IllegalArgumentException("games deve essere almeno 1");
+        }
+        if (size < 1 || (long) size * size > 64) {
+            throw new IllegalArgumentException("La griglia deve avere tra 1 e 64 celle");
+        }
+        if (winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("winLength deve essere compreso tra 1 e size");
+        }
+        this.games = games;
+        this.size = size;
+        this.winLength = winLength;
+        int cells = size * size;
+        this.fullMask = (cells == 64) ? -1L : (1L << cells) - 1;
+
+        this.maskX = new long[games];
+        this.maskO = new long[games];
+        this.toMove = new byte[games];
+        this.status = new byte[games];
+        resetAll(Symbol.X);
+
+        /* Enumerazione delle linee: per ogni direzione (orizzontale, verticale, due diagonali) ogni segmento di winLength celle */
+        List<Long> all = new ArrayList<>();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] d : directions) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int endRow = row + d[0] * (winLength - 1);
+                    int endCol = col + d[1] * (winLength - 1);
+                    if (endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    long line = 0;
+                    for (int k = 0; k < winLength; k++) {
+                        line |= 1L << ((row + d[0] * k) * size + col + d[1] * k);
+                    }
+                    all.add(line);
+                }
+            }
+        }
+
+        this.lineStart = new int[cells + 1];
+        List<Long> byCell = new ArrayList<>();
+        for (int cell = 0; cell < cells; cell++) {
+            lineStart[cell] = byCell.size();
+            for (long line : all) {
+                if ((line & (1L << cell)) != 0) {
+                    byCell.add(line);
+                }
+            }
+        }
+        lineStart[cells] = byCell.size();
+        this.lines = byCell.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /* Svuota la partita passata, con starter al tratto */
+    public void reset(int game, Symbol starter) {
+        maskX[game] = 0;
+        maskO[game] = 0;
+        toMove[game] = (byte) starter.ordinal();
+        status[game] = ONGOING;
+    }
+
+    /* Svuota tutte le partite, con starter al tratto */
+    public void resetAll(Symbol starter) {
+        for (int game = 0; game < games; game++) {
+            reset(game, starter);
+        }
+    }
+
+    /**
+     * Fa muovere una volta il giocatore al tratto di ogni partita in corso dell'intervallo [from, to). Intervalli disgiunti possono essere
+     * fatti avanzare contemporaneamente da thread diversi.
+     * @param policyX Strategia del giocatore X
+     * @param policyO Strategia del giocatore O
+     * @param random Generatore passato alle strategie
+     * @return Numero di partite dell'intervallo ancora in corso dopo la mossa
+     * @throws IllegalStateException se una strategia sceglie una cella occupata
+     */
+    public int step(int from, int to, ArenaPolicy policyX, ArenaPolicy policyO, RandomGenerator random) {
+        int ongoing = 0;
+        for (int game = from; game < to; game++) {
+            if (status[game] != ONGOING) {
+                continue;
+            }
+            boolean xToMove = toMove[game] == Symbol.X.ordinal();
+            long mine = xToMove ? maskX[game] : maskO[game];
+            long theirs = xToMove ? maskO[game] : maskX[game];
+
+            int cell = (xToMove ? policyX : policyO).chooseCell(this, mine, theirs, random);
+            long bit = 1L << cell;
+            if (((mine | theirs) & bit) != 0) {
+                throw new IllegalStateException("La strategia ha scelto la cella occupata " + cell);
+            }
+            mine |= bit;
+
+            if (xToMove) {
+                maskX[game] = mine;
+                toMove[game] = (byte) Symbol.O.ordinal();
+            } else {
+                maskO[game] = mine;
+                toMove[game] = (byte) Symbol.X.ordinal();
+            }
+
+            if (completesLine(mine, cell)) {
+                status[game] = (byte) (xToMove ? BoardStatus.WIN_X : BoardStatus.WIN_O).ordinal();
+            } else if ((mine | theirs) == fullMask) {
+                status[game] = (byte) BoardStatus.DRAW.ordinal();
+            } else {
+                ongoing++;
+            }
+        }
+        return ongoing;
+    }
+
+    /**
+     * Gioca fino alla fine tutte le partite dell'arena, dividendole in blocchi fatti avanzare in parallelo
+     * @param policyX Strategia del giocatore X
+     * @param policyO Strategia del giocatore O
+     * @param threads Numero di thread
+     * @param seed Seme dei generatori dei blocchi, per simulazioni riproducibili
+     */
+    public void playAll(ArenaPolicy policyX, ArenaPolicy policyO, int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads deve essere almeno 1");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < games; from += GAMES_PER_TASK) {
+                int start = from;
+                int end = Math.min(games, from + GAMES_PER_TASK);
+                SplittableRandom random = root.split();
+                futures.add(pool.submit(() -> {
+                    int ongoing;
+                    do {
+                        ongoing = step(start, end, policyX, policyO, random);
+                    } while (ongoing > 0);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulazione interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante la simulazione", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* Numero di partite dell'arena che si trovano nello stato passato */
+    public int count(BoardStatus result) {
+        int count = 0;
+        for (int game = 0; game < games; game++) {
+            if (status[game] == result.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /* Predicato che verifica se, occupando cell, le celle di mask contengono una linea vincente passante per cell */
+    public boolean completesLine(long mask, int cell) {
+        for (int i = lineStart[cell]; i < lineStart[cell + 1]; i++) {
+            if ((mask & lines[i]) == lines[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cella libera che completerebbe una linea del giocatore con le celle passate
+     * @param mask Celle del giocatore
+     * @param empty Celle libere
+     * @return Indice della cella, -1 se nessuna cella libera fa vincere il giocatore
+     */
+    public int findWinningCell(long mask, long empty) {
+        for (long free = empty; free != 0; free &= free - 1) {
+            int cell = Long.numberOfTrailingZeros(free);
+            if (completesLine(mask | (1L << cell), cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /* Maschera delle celle libere date quelle dei due giocatori */
+    public long getEmptyMask(long mine, long theirs) {
+        return ~(mine | theirs) & fullMask;
+    }
+
+    public BoardStatus getStatus(int game) {
+        return STATUSES[status[game]];
+    }
+
+    /* Giocatore al tratto nella partita passata (significativo solo se la partita è in corso) */
+    public Symbol getToMove(int game) {
+        return (toMove[game] == Symbol.X.ordinal()) ? Symbol.X : Symbol.O;
+    }
+
+    /* Maschera delle celle della partita occupate dal simbolo passato, come Board.getMask */
+    public long getMask(int game, Symbol symbol) {
+        if (symbol == Symbol.X) {
+            return maskX[game];
+        }
+        if (symbol == Symbol.O) {
+            return maskO[game];
+        }
+        return getEmptyMask(maskX[game], maskO[game]);
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+}
@@ -0,0 +1,88 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.model.BoardStatus;
+import com.brux.tris.model.Symbol;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Risultati aggregati di un accoppiamento del torneo: il giocatore xName gioca sempre con X e oName con O. I round vengono contati
+*  separatamente a seconda di chi li ha iniziati, dato che per le regole di Game.getNextStarter inizia chi ha perso il round precedente */
+public class PairingResult {
+
+    private static final int OUTCOMES = 3;     // vittoria X, vittoria O, pareggio
+
+    private final String xName;
+    private final String oName;
+
+    /* counts[starter * OUTCOMES + outcome], aggiornato dai thread del torneo al termine di ogni blocco di round */
+    private final AtomicLongArray counts = new AtomicLongArray(2 * OUTCOMES);
+
+    PairingResult(String xName, String oName) {
+        this.xName = xName;
+        this.oName = oName;
+    }
+
+    public String getXName() {
+        return xName;
+    }
+
+    public String getOName() {
+        return oName;
+    }
+
+    /* Somma ai contatori quelli parziali calcolati da un singolo thread (stesso layout di counts) */
+    void merge(long[] partial) {
+        for (int i = 0; i < partial.length; i++) {
+            if (partial[i] != 0) {
+                counts.addAndGet(i, partial[i]);
+            }
+        }
+    }
+
+    /* Indice nei contatori del risultato di un round, a seconda di chi l'ha iniziato */
+    static int indexOf(Symbol starter, BoardStatus status) {
+        int outcome = switch (status) {
+            case WIN_X -> 0;
+            case WIN_O -> 1;
+            default -> 2;
+        };
+        return ((starter == Symbol.X) ? 0 : OUTCOMES) + outcome;
+    }
+
+    public long getRounds() {
+        return getRounds(Symbol.X) + getRounds(Symbol.O);
+    }
+
+    /* Round iniziati dal simbolo passato */
+    public long getRounds(Symbol starter) {
+        return getWins(starter, Symbol.X) + getWins(starter, Symbol.O) + getDraws(starter);
+    }
+
+    /* Round vinti dal simbolo passato */
+    public long getWins(Symbol winner) {
+        return getWins(Symbol.X, winner) + getWins(Symbol.O, winner);
+    }
+
+    /* Round iniziati da starter e vinti da winner */
+    public long getWins(Symbol starter, Symbol winner) {
+        return counts.get(indexOf(starter, (winner == Symbol.X) ? BoardStatus.WIN_X : BoardStatus.WIN_O));
+    }
+
+    public long getDraws() {
+        return getDraws(Symbol.X) + getDraws(Symbol.O);
+    }
+
+    /* Round iniziati da starter e terminati in pareggio */
+    public long getDraws(Symbol starter) {
+        return counts.get(indexOf(starter, BoardStatus.DRAW));
+    }
+
+    /* Riga compatta: totali e, tra parentesi, il dettaglio per chi ha iniziato */
+    @Override
+    public String toString() {
+        return String.format("%s (X) vs %s (O): %d round | X %d  O %d  = %d | X inizia [%d/%d/%d] | O inizia [%d/%d/%d]",
+                xName, oName, getRounds(), getWins(Symbol.X), getWins(Symbol.O), getDraws(),
+                getWins(Symbol.X, Symbol.X), getWins(Symbol.X, Symbol.O), getDraws(Symbol.X),
+                getWins(Symbol.O, Symbol.X), getWins(Symbol.O, Symbol.O), getDraws(Symbol.O));
+    }
+}
@@ -0,0 +1,187 @@
+package com.brux.tris.sim;
+
+import com.brux.tris.model.*;
+import com.brux.tris.service.GameLog;
+import com.brux.tris.service.ScoreKeeper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/* Motore di tornei headless tra bot: ogni coppia ordinata di giocatori registrati (compresi gli scontri di un giocatore con sé stesso)
+*  gioca il numero di round richiesto, suddivisi in blocchi eseguiti in parallelo su un pool di thread. Ogni blocco è una partita a sé,
+*  con la propria istanza di Game e dei bot, in cui chi inizia ogni round è stabilito da Game.getNextStarter come nella UI. Durante il
+*  gioco non viene effettuato alcun I/O: i risultati vengono solamente contati */
+public class Tournament {
+
+    /* Numero di round giocati da ogni blocco, ossia da ciascuna partita */
+    private static final long ROUNDS_PER_TASK = 4096;
+
+    private final int threads;
+    private final int size;
+    private final int winLength;
+
+    /* Budget per mossa imposto a tutti i giocatori, per scontri a latenza fissa (di default illimitato) */
+    private SearchBudget budget = SearchBudget.unlimited();
+
+    /* Eventuale registro in cui salvare tutti i round giocati */
+    private GameLog log;
+
+    /* Giocatori registrati, nell'ordine di inserimento: nome -> factory che crea il giocatore dato il simbolo */
+    private final Map<String, Function<Symbol, Player>> players = new LinkedHashMap<>();
+
+    /* Torneo sul tris classico 3x3 */
+    public Tournament(int threads) {
+        this(threads, Board.DEFAULT_SIZE, Board.DEFAULT_WIN_LENGTH);
+    }
+
+    public Tournament(int threads, int size, int winLength) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads deve essere almeno 1");
+        }
+        this.threads = threads;
+        this.size = size;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Registra un giocatore al torneo. La factory viene chiamata solo durante run, che rifiuta i giocatori umani: qui non si crea alcuna
+     * istanza, dato che un bot può allocare risorse già alla costruzione
+     * @param name Nome con cui il giocatore compare nei risultati
+     * @param factory Funzione che crea una nuova istanza del giocatore per il simbolo passato (es. EasyBot::new)
+     * @return Il torneo stesso, per concatenare le registrazioni
+     */
+    public Tournament addPlayer(String name, Function<Symbol, Player> factory) {
+        players.put(name, factory);
+        return this;
+    }
+
+    /**
+     * Imposta il budget entro cui ogni giocatore deve scegliere ciascuna mossa, così che bot diversi si affrontino a parità di tempo o
+     * di nodi
+     * @return Il torneo stesso, per concatenare le impostazioni
+     */
+    public Tournament withBudget(SearchBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * Registra tutti i round giocati nel registro passato, che deve essere relativo alla stessa griglia del torneo
+     * @return Il torneo stesso, per concatenare le impostazioni
+     */
+    public Tournament recordTo(GameLog log) {
+        if (log.getSize() != size || log.getWinLength() != winLength) {
+            throw new IllegalArgumentException("Il registro è relativo ad un'altra griglia");
+        }
+        this.log = log;
+        return this;
+    }
+
+    /**
+     * Gioca tutti gli accoppiamenti e ne aggrega i risultati
+     * @param roundsPerPairing Numero di round da giocare per ogni coppia ordinata di giocatori
+     * @return Risultati per accoppiamento e per simbolo iniziale
+     * @throws IllegalArgumentException se una factory crea un giocatore umano, che un torneo headless non può coinvolgere
+     */
+    public TournamentResult run(long roundsPerPairing) {
+        List<PairingResult> pairings = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+
+        /* Suddivisione di ogni accoppiamento in blocchi indipendenti */
+        for (Map.Entry<String, Function<Symbol, Player>> x : players.entrySet()) {
+            for (Map.Entry<String, Function<Symbol, Player>> o : players.entrySet()) {
+                PairingResult pairing = new PairingResult(x.getKey(), o.getKey());
+                pairings.add(pairing);
+
+                for (long played = 0; played < roundsPerPairing; played += ROUNDS_PER_TASK) {
+                    long rounds = Math.min(ROUNDS_PER_TASK, roundsPerPairing - played);
+                    tasks.add(() -> playMatch(x.getValue(), o.getValue(), rounds, pairing));
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Torneo interrotto", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException invalid) {
+                throw invalid;      // giocatore umano, rilevato sulle istanze del primo blocco che lo coinvolge
+            }
+            throw new IllegalStateException("Errore durante il torneo", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return new TournamentResult(pairings, System.nanoTime() - start);
+    }
+
+    /* Gioca una partita di rounds round tra due nuove istanze dei giocatori, contando i risultati localmente e sommandoli a quelli
+    *  dell'accoppiamento solo alla fine */
+    private void playMatch(Function<Symbol, Player> xFactory, Function<Symbol, Player> oFactory, long rounds, PairingResult pairing) {
+        Player playerX = xFactory.apply(Symbol.X);
+        Player playerO = oFactory.apply(Symbol.O);
+        long[] counts = new long[6];
+
+        try {
+            checkNotHuman(playerX, pairing.getXName());
+            checkNotHuman(playerO, pairing.getOName());
+            Game game = new Game(playerX, playerO, new ScoreKeeper(), Mode.SINGLE_PLAYER, size, winLength);
+            if (log != null) {
+                game.setRecorder(log.recorder());
+            }
+
+            Player starter = playerX;   // Al primo round parte sempre X
+            for (long round = 0; round < rounds; round++) {
+                game.startNewRound(starter);
+
+                BoardStatus status;
+                do {
+                    status = game.playTurn(budget);
+                } while (status == BoardStatus.ONGOING);
+
+                counts[PairingResult.indexOf(starter.getSymbol(), status)]++;
+                starter = game.getNextStarter(status);
+            }
+        } finally {
+            close(playerX);
+            close(playerO);
+        }
+
+        pairing.merge(counts);
+    }
+
+    private static void checkNotHuman(Player player, String name) {
+        if (player instanceof HumanPlayer) {
+            throw new IllegalArgumentException("Un torneo headless non può coinvolgere giocatori umani: " + name);
+        }
+    }
+
+    /* Le istanze sono create per il singolo blocco: quelle che possiedono risorse (ad esempio il pool di un MctsBot con più thread)
+    *  vengono liberate al suo termine */
+    private static void close(Player player) {
+        if (player instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Errore nella chiusura di " + player, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.brux.tris.sim;
+
+import java.util.List;
+
+/* Risultato complessivo di un torneo: l'elenco degli accoppiamenti e il tempo impiegato */
+public class TournamentResult {
+
+    private final List<PairingResult> pairings;
+    private final long elapsedNanos;
+
+    TournamentResult(List<PairingResult> pairings, long elapsedNanos) {
+        this.pairings = List.copyOf(pairings);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<PairingResult> getPairings() {
+        return pairings;
+    }
+
+    /* Risultato dell'accoppiamento tra i due giocatori, null se non presente */
+    public PairingResult getPairing(String xName, String oName) {
+        for (PairingResult pairing : pairings) {
+            if (pairing.getXName().equals(xName) && pairing.getOName().equals(oName)) {
+                return pairing;
+            }
+        }
+        return null;
+    }
+
+    public long getTotalRounds() {
+        long total = 0;
+        for (PairingResult pairing : pairings) {
+            total += pairing.getRounds();
+        }
+        return total;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /* Riepilogo compatto: una riga per accoppiamento più il throughput complessivo */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (PairingResult pairing : pairings) {
+            sb.append(pairing).append(System.lineSeparator());
+        }
+        double seconds = elapsedNanos / 1e9;
+        sb.append(String.format("Totale: %d round in %.2f s (%.0f round/s)", getTotalRounds(), seconds, getTotalRounds() / seconds));
+        return sb.toString();
+    }
+}
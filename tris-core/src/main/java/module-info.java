@@ -0,0 +1,10 @@
+/* Motore di gioco, privo di dipendenze da JavaFX */
+module com.brux.tris.core {
+    requires jdk.jfr;
+    requires jdk.management;
+
+    exports com.brux.tris.model;
+    exports com.brux.tris.ai;
+    exports com.brux.tris.service;
+    exports com.brux.tris.sim;
+}
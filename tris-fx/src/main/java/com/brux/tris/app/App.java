@@ -1,5 +1,6 @@
 package com.brux.tris.app;
 
+import com.brux.tris.controller.GameController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -7,11 +8,14 @@ import javafx.stage.Stage;
 
 public class App extends Application {
 
+    private GameController controller;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         /* Loader del file FXML relativo alla GUI */
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/brux/tris/view/MainView.fxml"));
         Scene scene = new Scene(loader.load());
+        controller = loader.getController();
 
 
         /* Setting della scena creata a partire dal FXML nello stage */
@@ -21,6 +25,14 @@ public class App extends Application {
         primaryStage.show();
     }
 
+    /* Alla chiusura della finestra il controller salva le statistiche delle partite */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -3,24 +3,54 @@ package com.brux.tris.controller;
 import com.brux.tris.model.*;
 import com.brux.tris.ai.*;
 import com.brux.tris.service.*;
+import com.brux.tris.view.BoardCanvas;
 
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.layout.GridPane;
-import javafx.scene.paint.Color;
+import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 /* Controller che funge da ponte tra UI e logica del gioco */
 public class GameController {
 
-    private static final String DEFAULT_CELL_STYLE = "-fx-background-color: rgba(0, 0, 0, 0.15);";
-    private static final String WIN_CELL_STYLE     = "-fx-background-color: rgba(0, 0, 0, 0.40);";
+    /* Attesa minima prima che la mossa del bot venga mostrata, per simulare un comportamento umano */
+    private static final Duration BOT_DELAY = Duration.seconds(0.7);
 
-    /* Collegamenti coi controlli definiti nella GUI. Si noti che non verranno collegati qui i singoli bottoni delle caselle della griglia, per
-    *  evitare di avere 9 riferimenti differenti, ma si utilizzerà un array bidimensionale per rendere il tutto più pulito */
+    /* Tempo a disposizione del bot per scegliere la mossa: coincide con la pausa, così che la risposta arrivi comunque entro di essa
+    *  (per quanto la griglia sia grande) e venga mostrata appena la pausa termina */
+    private static final SearchBudget BOT_BUDGET = SearchBudget.ofTime(java.time.Duration.ofMillis((long) BOT_DELAY.toMillis()));
+
+    /* Limite di risposte del bot precalcolate durante ciascun turno dell'umano */
+    private static final int PONDER_POSITIONS = 4096;
+
+    /* File in cui vengono salvate le statistiche di tutte le partite giocate, e intervallo tra un salvataggio e il successivo */
+    private static final Path STATISTICS_FILE = Path.of(System.getProperty("user.home"), ".tris", "statistics.properties");
+    private static final java.time.Duration STATISTICS_FLUSH = java.time.Duration.ofSeconds(5);
+
+    /* Massimo numero di eventi della partita accumulati in attesa del thread JavaFX */
+    private static final int EVENT_BATCH = 64;
+
+    /* Thread (daemon, così da non impedire la chiusura dell'applicazione) su cui i bot calcolano le mosse senza bloccare la UI. È uno
+    *  solo perché i bot non sono thread-safe: una ricerca annullata che non ha ancora terminato viene completata prima della successiva,
+    *  e il suo risultato scartato */
+    private static final ExecutorService BOT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bot-thinker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /* Collegamenti coi controlli definiti nella GUI. La griglia non è composta da controlli FXML ma viene disegnata da un BoardCanvas,
+    *  creato in initialize() e aggiunto al pannello boardPane */
     @FXML
     private ChoiceBox<String> modeChoice;
 
@@ -52,14 +82,18 @@ public class GameController {
     private Button newRoundButton;
 
     @FXML
-    private GridPane boardGrid;
+    private StackPane boardPane;
 
-    /* Matrice di Bottoni che utilizzeremo per riferire le varie celle in modo uniforme (settata dentro initialize()) */
-    private Button[][] cells;
+    /* Vista della griglia: viene notificata direttamente da Game ad ogni mossa e ad ogni nuovo round (si veda BoardListener) */
+    private BoardCanvas boardView;
 
     /* Campi necessari alla logica delle partite */
     private Game game;
     private ScoreKeeper scoreKeeper;
+    private StatisticsService statistics;
+
+    /* Flusso degli eventi della partita corrente, a cui è abbonata la label del punteggio */
+    private GameEventPublisher gameEvents;
 
     /* Giocatori correnti */
     private Player playerX;
@@ -68,6 +102,16 @@ public class GameController {
     /* Risultato del round precedente. Serve per startare il successivo */
     private BoardStatus lastRoundStatus;
 
+    /* Turno del bot in corso: calcolo in background e pausa. Il contatore viene incrementato ad ogni annullamento, così che un risultato
+    *  arrivato dopo un clear o un nuovo round venga riconosciuto come superato e ignorato */
+    private Future<?> pendingBotTask;
+    private PauseTransition pendingPause;
+    private long botTurnId;
+
+    /* Pondering del bot durante il turno dell'umano (solo in Single Player), eseguito sullo stesso thread dei turni del bot */
+    private Ponderer ponderer;
+    private Future<?> pendingPonderTask;
+
     /* Stato interno per ricordare la difficoltà scelta */
     private enum Difficulty {
         EASY {
@@ -95,22 +139,10 @@ public class GameController {
     @FXML
     private void initialize() {
 
-        // 1. Collegamento dei bottoni alla matrice cells
-        cells = new Button[3][3];
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                // Cerca il bottone con fx:id tipo "cell00", "cell01", ecc. per poi linkarlo al corrispettivo bottone della matrice
-                String id = "cell" + r + c;
-                Button cell = (Button) boardGrid.lookup("#" + id);
-                cells[r][c] = cell;
-
-                int row = r;
-                int col = c;
-
-                // Aggiunge il listener al click dei vari bottoni
-                cell.setOnAction(e -> handleCellClick(row, col));
-            }
-        }
+        // 1. Creazione della griglia e listener al click delle sue celle
+        boardView = new BoardCanvas();
+        boardView.setOnCellClick(cell -> handleCellClick(cell / boardView.getBoardSize(), cell % boardView.getBoardSize()));
+        boardPane.getChildren().add(boardView);
 
         // 2. Popolamento delle ChoiceBox
         modeChoice.getItems().addAll("Single Player", "Scontro");
@@ -119,7 +151,14 @@ public class GameController {
 
         // 3. Inizializzazione del punteggio iniziale
         scoreKeeper = new ScoreKeeper();
-        scoreLabel.setText("X: 0  |  O: 0");
+        scoreLabel.setText("X: 0 | O: 0 | Pari: 0");
+
+        // Statistiche persistenti: se il file non è leggibile si continua con statistiche solo in memoria
+        try {
+            statistics = StatisticsService.open(STATISTICS_FILE, STATISTICS_FLUSH);
+        } catch (IOException e) {
+            statistics = new StatisticsService();
+        }
 
         // 4. Messaggio iniziale
         statusLabel.setText("Benvenuto! Scegli modalità di gioco");
@@ -193,16 +232,19 @@ public class GameController {
         // Se è il turno di un umano allora si crea la Mossa in base alla cella cliccata e la si inserisce dentro al player. Il controllo
         // sul tipo del Player viene fatto per evitare che in Single Player un umano tenti di giocare durante il turno del Bot
         if (current instanceof HumanPlayer) {
-            ((HumanPlayer) current).setPendingMove(new Move(row, col, current.getSymbol()));
+            ((HumanPlayer) current).setPendingMove(Move.of(row, col, current.getSymbol()));
             playTurnAndUpdate();
         }
     }
 
     private void handleClear() {
         // 1. Reset logica
+        cancelBotTurn();            // eventuale mossa del bot in calcolo
+        closeEventStream();         // gli eventi ancora in arrivo dalla partita annullata vengono ignorati
         scoreKeeper.reset();        // reset dello score
         updateScore();              // mostra sulla scoreLabel lo score aggiornato
         game = null;                // annulla la partita corrente
+        ponderer = null;            // e le risposte precalcolate del bot
         lastRoundStatus = null;     // resetta lo stato del round precedente
         selectedDifficulty = null;  // resetta la scelta della difficoltà del bot
 
@@ -217,16 +259,9 @@ public class GameController {
         clearButton.setVisible(false);  // clear torna invisibile
         newRoundButton.setVisible(false);
 
-        // Reset della griglia (svuota i bottoni)
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                cells[r][c].setText("");
-                cells[r][c].setDisable(false);  // riattiva i bottoni se erano bloccati
-            }
-        }
-
-        // Pulizia Higlights dell'ultima vittoria (se clear chiamato prima di un nuovo round con vincita)
-        clearHighlight();
+        // Reset della griglia: svuota le celle, rimuove gli highlights dell'ultima vittoria e la riattiva se era bloccata
+        boardView.clear();
+        setBoardEnabled(true);
 
         // Reset scelta nelle ChoiceBox
         modeChoice.getSelectionModel().clearSelection();
@@ -241,21 +276,23 @@ public class GameController {
         // Precauzione: se non si ha un game oppure se non si ha lo stato del round precedente non si fa nulla
         if (game == null || lastRoundStatus == null) return;
 
+        cancelBotTurn();    // precauzione: nessun turno del bot deve sopravvivere al round precedente
+
         // Scelta nuovo giocatore ad iniziare fatta tramite il metodo
         Player starter = game.getNextStarter(lastRoundStatus);
 
-        game.startNewRound(starter);  // Reset board + set currentPlayer
-        refreshBoard();               // Pulizia GUI
-        clearHighlight();             // Pulizia eventuali highlights
+        game.startNewRound(starter);  // Reset board + set currentPlayer (la griglia, highlights compresi, viene svuotata da Game)
         setBoardEnabled(true);        // Riabilita i click umani
 
         newRoundButton.setVisible(false);
 
         statusLabel.setText("Nuovo round! Tocca a " + starter.getSymbol());
 
-        // Se si è in Single Player e parte il bot si effettua la sua prima mossa col delay
+        // Se si è in Single Player e parte il bot si effettua la sua prima mossa col delay, altrimenti il bot riflette sulle risposte
         if (game.getMode() == Mode.SINGLE_PLAYER && starter instanceof BotPlayer) {
             triggerBotTurnWithDelay(); // usa l’helper che hai già aggiunto
+        } else {
+            startPondering();
         }
     }
     /*-----------------------------------------------*/
@@ -282,7 +319,11 @@ public class GameController {
         }
 
         game = new Game(playerX, playerO, scoreKeeper, Mode.SINGLE_PLAYER);
+        game.setRecorder(statistics.recorder(newSessionId()));
+        game.setBoardListener(boardView);
+        attachEventStream();
         game.startNewRound(playerX);    // Al primo round parte sempre PlayerX
+        ponderer = new Ponderer((playerX instanceof BotPlayer) ? playerX : playerO, PONDER_POSITIONS);
 
         // Nascosti controlli di scelta
         modeChoice.setVisible(false);
@@ -297,9 +338,11 @@ public class GameController {
 
         statusLabel.setText("Modalità Single Player " + selectedDifficulty + ". Tocca a X!");
 
-        // Se il primo player a dover giocare la partita è il bot, si avvia la sua mossa
+        // Se il primo player a dover giocare la partita è il bot, si avvia la sua mossa, altrimenti il bot riflette sulle risposte
         if (game.getCurrentPlayer() instanceof BotPlayer) {
             triggerBotTurnWithDelay();
+        } else {
+            startPondering();
         }
     }
 
@@ -311,6 +354,10 @@ public class GameController {
         playerO = new HumanPlayer(Symbol.O);
 
         game = new Game(playerX, playerO, scoreKeeper, Mode.SCONTRO);
+        game.setRecorder(statistics.recorder(newSessionId()));
+        game.setBoardListener(boardView);
+        attachEventStream();
+        ponderer = null;
         game.startNewRound(playerX);
 
         // Nascondi controlli di scelta
@@ -327,16 +374,58 @@ public class GameController {
         statusLabel.setText("Modalità Scontro. Tocca a X!");
     }
 
-    /* Metodo di update degli score */
+    /* Metodo di update degli score, a partire dallo ScoreKeeper (usato all'avvio e al reset della partita) */
     private void updateScore() {
-        int scoreX = scoreKeeper.getScore(Symbol.X);
-        int scoreO = scoreKeeper.getScore(Symbol.O);
-        scoreLabel.setText("X: " + scoreX + "  |  O: " + scoreO);
+        showScore(scoreKeeper.getScore(Symbol.X), scoreKeeper.getScore(Symbol.O), scoreKeeper.getDraws());
+    }
+
+    private void showScore(int scoreX, int scoreO, int draws) {
+        scoreLabel.setText("X: " + scoreX + " | O: " + scoreO + " | Pari: " + draws);
+    }
+
+    /* Collega alla partita appena creata un nuovo flusso di eventi, chiudendo quello della precedente: a fine round il punteggio arriva con
+    *  l'evento ScoreChanged, consegnato a blocchi sul thread JavaFX, di cui basta mostrare il più recente */
+    private void attachEventStream() {
+        closeEventStream();
+        GameEventPublisher events = new GameEventPublisher();
+        events.subscribe(new BatchingSubscriber<GameEvent>(EVENT_BATCH, Platform::runLater, batch -> {
+            if (events != gameEvents) return;   // eventi di una partita ormai chiusa
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                if (batch.get(i) instanceof GameEvent.ScoreChanged score) {
+                    showScore(score.getScore(Symbol.X), score.getScore(Symbol.O), score.getDraws());
+                    break;
+                }
+            }
+        }));
+        game.setEventPublisher(events);
+        gameEvents = events;
+    }
+
+    private void closeEventStream() {
+        if (gameEvents != null) {
+            gameEvents.close();
+            gameEvents = null;
+        }
+    }
+
+    /* Identificativo della sessione delle statistiche relativa ad una nuova partita */
+    private static String newSessionId() {
+        return "ui-" + System.currentTimeMillis();
+    }
+
+    /* Da chiamare alla chiusura dell'applicazione: annulla l'eventuale turno del bot, chiude il flusso di eventi e salva le statistiche */
+    public void shutdown() {
+        cancelBotTurn();
+        closeEventStream();
+        try {
+            statistics.close();
+        } catch (IOException e) {
+            System.err.println("Salvataggio delle statistiche fallito: " + e.getMessage());
+        }
     }
 
     private void playTurnAndUpdate() {
-        BoardStatus status = game.playTurn();   // Player corrente effettua la sua mossa e viene tornato il NUOVO stato della board
-        refreshBoard();                         // Refresh della GUI (grid)
+        BoardStatus status = game.playTurn();   // Player corrente effettua la sua mossa (mostrata dalla griglia) e viene tornato il NUOVO stato
 
         if (status != BoardStatus.ONGOING) {    // Se la partita è finita
             handleRoundEnd(status);
@@ -352,23 +441,25 @@ public class GameController {
 
     private void handleRoundEnd(BoardStatus status) {
         lastRoundStatus = status;   // memorizza l’esito per decidere chi parte il round successivo
+        if (ponderer != null) {
+            ponderer.cancel();      // le risposte alla posizione finale non servono più
+        }
 
         String message;
         switch (status) {
             case WIN_X -> {
                 message = "Ha vinto X!";
-                highlightWinningLine(game.getBoard(), Symbol.X);
+                highlightWinningLine(game.getBoard());
             }
             case WIN_O -> {
                 message = "Ha vinto O!";
-                highlightWinningLine(game.getBoard(), Symbol.O);
+                highlightWinningLine(game.getBoard());
             }
             default    -> message = "Pareggio!";
         }
-        statusLabel.setText(message);
+        statusLabel.setText(message);       // il punteggio viene aggiornato dall'evento ScoreChanged (si veda attachEventStream)
 
-        updateScore();                      // legge dallo ScoreKeeper e aggiorna la label
-        setBoardEnabled(false);             // blocca i bottoni della griglia
+        setBoardEnabled(false);             // blocca i click sulla griglia
         newRoundButton.setVisible(true);    // mostra il pulsante per ripartire
     }
     /*-----------------------------------------------*/
@@ -376,29 +467,9 @@ public class GameController {
 
 
     /*------------------ HELPERS --------------------*/
-    /* Aggiorna la UI a seguito di una qualche azione sulla board */
-    private void refreshBoard() {
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                Symbol s = game.getBoard().getCell(r, c);
-                if (s == Symbol.EMPTY) {
-                    cells[r][c].setText("");
-                } else {
-
-                    if (s == Symbol.O) {    // Simbolo O
-                        cells[r][c].setTextFill(Color.web("#f2ebd3"));
-                    } else {    // Simbolo X
-                        cells[r][c].setTextFill(Color.web("#545454"));
-                    }
-
-                    cells[r][c].setText(s.toString());
-                }
-            }
-        }
-    }
-
     /* Effettua il turno del bot con del delay per dare possibilità al player di avere del tempo tra i vari turni, simulando dunque
-    *  un comportamento umano */
+    *  un comportamento umano. La mossa viene calcolata su un thread in background, su una copia della board, mentre la pausa scorre:
+    *  viene applicata (sul thread JavaFX) quando sono terminati entrambi, dunque il delay si sovrappone al calcolo invece di sommarsi */
     private void triggerBotTurnWithDelay() {
 
         // Precauzione: se non c’è partita o non è un bot a dover giocare, non fare nulla
@@ -407,76 +478,100 @@ public class GameController {
         // Aggiornamento Label di stato della partita: turno del bot
         statusLabel.setText("Tocca a " + game.getCurrentPlayer().getSymbol());
 
-        // Creazione della pausa e settaggio della azione post-pausa, ossia il turno del bot
-        PauseTransition pause = new PauseTransition(Duration.seconds(0.7));
-        pause.setOnFinished(e -> {
-            BoardStatus afterBot = game.playTurn();
-            refreshBoard();
+        cancelBotTurn();
+        long turnId = botTurnId;
+        Player bot = game.getCurrentPlayer();
+        Ponderer botPonderer = ponderer;            // risposte eventualmente già pronte
+        Board snapshot = new Board(game.getBoard());    // i bot effettuano e annullano mosse sulla board che ricevono
+
+        // Calcolo della mossa in background
+        CompletableFuture<Move> move = new CompletableFuture<>();
+        pendingBotTask = BOT_EXECUTOR.submit(() -> {
+            try {
+                move.complete((botPonderer != null)
+                        ? TurnProfiler.makeMove(botPonderer, snapshot, BOT_BUDGET)
+                        : TurnProfiler.makeMove(bot, snapshot, BOT_BUDGET));
+            } catch (Throwable t) {
+                move.completeExceptionally(t);
+            }
+        });
+
+        // Pausa minima, completata sul thread JavaFX
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        pendingPause = new PauseTransition(BOT_DELAY);
+        pendingPause.setOnFinished(e -> delay.complete(null));
+        pendingPause.play();
+
+        // Applicazione della mossa al termine di entrambi, solo se nel frattempo il turno non è stato annullato
+        move.thenCombine(delay, (m, ignored) -> m).whenComplete((m, error) -> Platform.runLater(() -> {
+            if (turnId != botTurnId || game == null) {
+                return;     // turno annullato da clear o nuovo round
+            }
+            pendingBotTask = null;
+            pendingPause = null;
+
+            if (error != null) {
+                /* Il round si chiude senza esito, dunque senza punti: per la scelta di chi inizia il successivo vale come un pareggio */
+                System.err.println("Errore del bot: " + error);
+                lastRoundStatus = BoardStatus.ONGOING;
+                statusLabel.setText("Errore del bot, avvia un nuovo round");
+                setBoardEnabled(false);
+                newRoundButton.setVisible(true);
+                return;
+            }
+
+            BoardStatus afterBot = game.playMove(m);    // la griglia viene aggiornata da Game
 
             if (afterBot != BoardStatus.ONGOING) {
                 handleRoundEnd(afterBot);
             } else {
                 statusLabel.setText("Tocca a " + game.getCurrentPlayer().getSymbol());
+                startPondering();
             }
-        });
-
-        // Avvio effettivo della pausa
-        pause.play();
+        }));
     }
 
-    /* Abilita/Disabilita tutti i tasti della Grid per evitare che vengano cliccati quando non devono esserlo */
-    private void setBoardEnabled(boolean enabled) {
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                cells[r][c].setDisable(!enabled);
-            }
-        }
+    /* Avvia in background il calcolo delle risposte del bot a tutte le possibili mosse dell'umano, che ha appena il turno */
+    private void startPondering() {
+        if (ponderer == null || game == null || !(game.getCurrentPlayer() instanceof HumanPlayer)) return;
+
+        Ponderer current = ponderer;
+        Board snapshot = new Board(game.getBoard());
+        Symbol human = game.getCurrentPlayer().getSymbol();
+        long generation = current.getGeneration();     // letta ora, così che un cancelBotTurn prima dell'avvio non vada perso
+        pendingPonderTask = BOT_EXECUTOR.submit(() -> current.ponder(snapshot, human, BOT_BUDGET, generation));
     }
 
-    /* Highlight delle caselle che hanno portato alla vittoria nel round corrente */
-    private void highlightWinningLine(Board board, Symbol winner) {
-        // Reset eventuali highlight precedenti
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                cells[r][c].setStyle("-fx-background-color: rgba(0, 0, 0, 0.15);");
-            }
+    /* Annulla l'eventuale turno del bot in corso: ferma il pondering e la pausa, interrompe il calcolo se non ancora iniziato (o ne
+    *  segnala l'interruzione al thread) e invalida il risultato */
+    private void cancelBotTurn() {
+        botTurnId++;
+        if (ponderer != null) {
+            ponderer.cancel();      // il pondering lascia il thread al turno del bot
         }
-
-        // Possibili combinazioni di celle che compongono le win conditions nel tris
-        int[][][] lines = {
-                {{0,0},{0,1},{0,2}}, // righe
-                {{1,0},{1,1},{1,2}},
-                {{2,0},{2,1},{2,2}},
-                {{0,0},{1,0},{2,0}}, // colonne
-                {{0,1},{1,1},{2,1}},
-                {{0,2},{1,2},{2,2}},
-                {{0,0},{1,1},{2,2}}, // diagonali
-                {{0,2},{1,1},{2,0}}
-        };
-
-        // Scorrimento delle varie linee che rappresentano le win conditions
-        for (int[][] line : lines) {
-            Symbol a = board.getCell(line[0][0], line[0][1]);
-            Symbol b = board.getCell(line[1][0], line[1][1]);
-            Symbol c = board.getCell(line[2][0], line[2][1]);
-
-            if (a == winner && b == winner && c == winner) {
-                // Le varie posizioni della linea vincente vengono evidenziate
-                for (int[] pos : line) {
-                    cells[pos[0]][pos[1]].setStyle(WIN_CELL_STYLE);
-                }
-                break;
-            }
+        if (pendingPonderTask != null) {
+            pendingPonderTask.cancel(false);
+            pendingPonderTask = null;
+        }
+        if (pendingBotTask != null) {
+            pendingBotTask.cancel(true);
+            pendingBotTask = null;
+        }
+        if (pendingPause != null) {
+            pendingPause.stop();
+            pendingPause = null;
         }
     }
 
-    /* Pulizia degli highlights */
-    private void clearHighlight() {
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                cells[r][c].setStyle(DEFAULT_CELL_STYLE);
-            }
-        }
+    /* Abilita/Disabilita i click sulla griglia per evitare che le celle vengano cliccate quando non devono esserlo */
+    private void setBoardEnabled(boolean enabled) {
+        boardView.setDisable(!enabled);
+    }
+
+    /* Highlight delle caselle che hanno portato alla vittoria nel round corrente, ricavate dalla Board stessa a partire dalla mossa che
+    *  ha concluso il round */
+    private void highlightWinningLine(Board board) {
+        boardView.highlight(board.getWinningLine());
     }
     /*-----------------------------------------------*/
 }
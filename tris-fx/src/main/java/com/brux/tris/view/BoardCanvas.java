@@ -0,0 +1,237 @@
+package com.brux.tris.view;
+
+import com.brux.tris.model.Board;
+import com.brux.tris.model.BoardListener;
+import com.brux.tris.model.Symbol;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/* Vista della griglia di gioco disegnata su un unico Canvas, per griglie fino a MAX_SIZE x MAX_SIZE. Le modifiche (celle occupate dalla
+*  partita, highlight della linea vincente) non vengono disegnate subito ma segnate come sporche: ad ogni frame (al più 60 al secondo) si
+*  ridisegnano soltanto le celle cambiate dal frame precedente, così che anche molte mosse ravvicinate (es. partite tra bot riprodotte
+*  velocemente) costino un solo ridisegno parziale. L'intera griglia viene ridisegnata solo al ridimensionamento o al cambio di dimensione.
+*  Come ogni nodo JavaFX va utilizzata dal thread JavaFX, dunque anche Game deve notificarla da lì */
+public class BoardCanvas extends Region implements BoardListener {
+
+    /* Dimensione massima della griglia rappresentabile */
+    public static final int MAX_SIZE = 19;
+
+    private static final Color CELL_COLOR     = Color.rgb(0, 0, 0, 0.15);
+    private static final Color WIN_CELL_COLOR = Color.rgb(0, 0, 0, 0.40);
+    private static final Color X_COLOR        = Color.web("#545454");
+    private static final Color O_COLOR        = Color.web("#f2ebd3");
+
+    private final Canvas canvas = new Canvas();
+
+    /* Stato mostrato: simbolo di ogni cella (indice row * size + col) e celle evidenziate. I bit di dirty indicano le celle da ridisegnare
+    *  al prossimo frame, fullRedraw l'intera griglia */
+    private int size;
+    private Symbol[] cells;
+    private long[] highlighted;
+    private long[] dirty;
+    private boolean fullRedraw;
+
+    /* Geometria corrente, in pixel interi così che celle adiacenti non si sovrappongano nel ridisegno parziale */
+    private int cellSize;
+    private int gap;
+    private Font font;
+
+    /* Azione da eseguire al click su una cella, a cui viene passato l'indice della cella */
+    private IntConsumer onCellClick;
+
+    /* Timer agganciato al refresh dello schermo: attivo solo finché c'è qualcosa da ridisegnare */
+    private final AnimationTimer renderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            render();
+        }
+    };
+    private boolean rendering;
+
+    public BoardCanvas() {
+        getChildren().add(canvas);
+        setBoardSize(Board.DEFAULT_SIZE);
+
+        canvas.setOnMouseClicked(e -> {
+            int cell = cellAt(e.getX(), e.getY());
+            if (cell >= 0 && onCellClick != null) {
+                onCellClick.accept(cell);
+            }
+        });
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    public void setOnCellClick(IntConsumer onCellClick) {
+        this.onCellClick = onCellClick;
+    }
+
+    /**
+     * Allinea la vista all'intera board passata, ridisegnando soltanto le celle che risultano diverse, e rimuove gli highlight
+     * @param board Board da mostrare
+     * @throws IllegalArgumentException se la griglia supera MAX_SIZE x MAX_SIZE
+     */
+    @Override
+    public void boardReset(Board board) {
+        if (board.getSize() != size) {
+            setBoardSize(board.getSize());
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            show(cell, board.getCell(cell / size, cell % size));
+        }
+        clearHighlight();
+    }
+
+    @Override
+    public void cellChanged(int cell, Symbol symbol) {
+        show(cell, symbol);
+    }
+
+    /* Svuota la griglia (mantenendone la dimensione) e rimuove gli highlight */
+    public void clear() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            show(cell, Symbol.EMPTY);
+        }
+        clearHighlight();
+    }
+
+    /* Evidenzia le celle passate (es. la linea vincente ricavata da Board.getWinningLine) */
+    public void highlight(int[] line) {
+        for (int cell : line) {
+            highlighted[cell >>> 6] |= 1L << cell;
+            markDirty(cell);
+        }
+    }
+
+    /* Rimuove gli highlight, ridisegnando soltanto le celle che erano evidenziate */
+    public void clearHighlight() {
+        for (int w = 0; w < highlighted.length; w++) {
+            dirty[w] |= highlighted[w];
+            highlighted[w] = 0;
+        }
+        requestRender();
+    }
+
+    /* Cambia la dimensione della griglia mostrata, svuotandola */
+    private void setBoardSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Griglia non rappresentabile: " + size + "x" + size);
+        }
+        this.size = size;
+        this.cells = new Symbol[size * size];
+        Arrays.fill(cells, Symbol.EMPTY);
+        this.highlighted = new long[(cells.length + 63) >>> 6];
+        this.dirty = new long[highlighted.length];
+        this.gap = Math.max(1, 15 / size);      // 5 pixel sul 3x3, 1 sulle griglie più grandi
+        this.cellSize = 0;                      // geometria ricalcolata al prossimo layout
+        requestLayout();
+    }
+
+    /* Aggiorna il simbolo mostrato in una cella, segnandola da ridisegnare solo se cambia */
+    private void show(int cell, Symbol symbol) {
+        if (cells[cell] != symbol) {
+            cells[cell] = symbol;
+            markDirty(cell);
+        }
+    }
+
+    private void markDirty(int cell) {
+        dirty[cell >>> 6] |= 1L << cell;
+        requestRender();
+    }
+
+    /* Avvia il timer di disegno, se non è già attivo: le richieste successive fino al prossimo frame vengono accorpate */
+    private void requestRender() {
+        if (!rendering) {
+            rendering = true;
+            renderer.start();
+        }
+    }
+
+    /* Adatta il canvas allo spazio disponibile: la griglia resta quadrata e centrata */
+    @Override
+    protected void layoutChildren() {
+        double side = Math.min(getWidth() - snappedLeftInset() - snappedRightInset(), getHeight() - snappedTopInset() - snappedBottomInset());
+        int newCellSize = Math.max(1, (int) ((side - gap * (size - 1)) / size));
+        int extent = newCellSize * size + gap * (size - 1);
+
+        if (newCellSize != cellSize || canvas.getWidth() != extent) {
+            cellSize = newCellSize;
+            font = Font.font("Arial", FontWeight.BOLD, cellSize * 0.45);
+            canvas.setWidth(extent);
+            canvas.setHeight(extent);
+            fullRedraw = true;
+            requestRender();
+        }
+        canvas.relocate(Math.floor((getWidth() - extent) / 2), Math.floor((getHeight() - extent) / 2));
+    }
+
+    /* Frame: ferma il timer fino alla prossima modifica, poi ridisegna l'intera griglia o le sole celle sporche */
+    private void render() {
+        renderer.stop();
+        rendering = false;
+        if (cellSize == 0) return;      // non ancora disposta: il primo layout richiederà il disegno completo
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFont(font);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+
+        if (fullRedraw) {
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int cell = 0; cell < cells.length; cell++) {
+                drawCell(gc, cell);
+            }
+            fullRedraw = false;
+            Arrays.fill(dirty, 0);
+        } else {
+            for (int w = 0; w < dirty.length; w++) {
+                long bits = dirty[w];
+                while (bits != 0) {
+                    drawCell(gc, (w << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+                dirty[w] = 0;
+            }
+        }
+    }
+
+    private void drawCell(GraphicsContext gc, int cell) {
+        double x = (cell % size) * (cellSize + gap);
+        double y = (cell / size) * (cellSize + gap);
+
+        gc.clearRect(x, y, cellSize, cellSize);    // lo sfondo è semitrasparente: va prima rimosso quello precedente
+        gc.setFill((highlighted[cell >>> 6] & (1L << cell)) != 0 ? WIN_CELL_COLOR : CELL_COLOR);
+        gc.fillRect(x, y, cellSize, cellSize);
+
+        Symbol symbol = cells[cell];
+        if (symbol != Symbol.EMPTY) {
+            gc.setFill(symbol == Symbol.X ? X_COLOR : O_COLOR);
+            gc.fillText(symbol.toString(), x + cellSize / 2.0, y + cellSize / 2.0);
+        }
+    }
+
+    /* Indice della cella che contiene il punto (in coordinate del canvas), -1 se il punto cade fuori dalla griglia o tra due celle */
+    private int cellAt(double x, double y) {
+        int step = cellSize + gap;
+        if (step <= gap || x < 0 || y < 0) return -1;
+
+        int col = (int) (x / step);
+        int row = (int) (y / step);
+        if (col >= size || row >= size || x - col * step >= cellSize || y - row * step >= cellSize) return -1;
+        return row * size + col;
+    }
+}
@@ -1,4 +1,5 @@
 module com.brux.tris {
+    requires com.brux.tris.core;
     requires javafx.controls;
     requires javafx.fxml;
 
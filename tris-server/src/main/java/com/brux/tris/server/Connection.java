@@ -0,0 +1,194 @@
+package com.brux.tris.server;
+
+import com.brux.tris.model.Symbol;
+import com.brux.tris.service.MetricsRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* Connessione di un client, servita da un proprio virtual thread: legge i comandi riga per riga e li esegue sulla sessione a cui il
+*  client partecipa, bloccandosi (a costo praticamente nullo) sia sulla lettura del socket sia sull'attesa delle mosse dei bot. Le
+*  risposte possono essere inviate anche dal thread dell'avversario umano, dunque la scrittura è protetta da un lock */
+final class Connection implements Runnable {
+
+    private final GameServer server;
+    private final Socket socket;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Writer out;
+
+    /* Sessione a cui partecipa il client e simbolo con cui gioca, null finché non crea o non entra in una sessione */
+    private Session session;
+    private Symbol symbol;
+
+    Connection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            send("HELLO Tris");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].isEmpty()) {
+                    continue;
+                }
+                try {
+                    if (!handle(tokens)) {
+                        send("BYE");
+                        break;
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    send("ERROR " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            // Client disconnesso: la sessione viene liberata qui sotto
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();   // chiusura del server durante l'attesa di un bot
+        } finally {
+            if (session != null) {
+                server.leave(session, this);
+            }
+        }
+    }
+
+    /* Esegue un comando, ritorna false se il client ha chiesto di chiudere la connessione */
+    private boolean handle(String[] tokens) throws InterruptedException {
+        String command = tokens[0].toUpperCase();
+        switch (command) {
+            case "NEW" -> {
+                requireNoSession();
+                // NEW BOT <tipo> <simbolo> [size winLength] oppure NEW HUMAN [size winLength]
+                boolean bot = tokens.length > 1 && tokens[1].equalsIgnoreCase("BOT");
+                int first = bot ? 4 : 2;
+                if ((bot && tokens.length < 4) || tokens.length < 2) {
+                    throw new IllegalArgumentException("Utilizzo: NEW BOT <tipo> <X|O> [size winLength] | NEW HUMAN [size winLength]");
+                }
+                int size = (tokens.length > first) ? parseInt(tokens[first]) : 3;
+                int winLength = (tokens.length > first + 1) ? parseInt(tokens[first + 1]) : size;
+
+                if (bot) {
+                    symbol = parseSymbol(tokens[3]);
+                    session = server.createBotSession(tokens[2], symbol, size, winLength);
+                } else if (tokens[1].equalsIgnoreCase("HUMAN")) {
+                    symbol = Symbol.X;
+                    session = server.createHumanSession(size, winLength);
+                } else {
+                    throw new IllegalArgumentException("Tipo di sessione sconosciuto: " + tokens[1]);
+                }
+                session.join(symbol, this);
+                session.playBotTurns(server.getComputePool(), server.getBotBudget());
+            }
+            case "JOIN" -> {
+                requireNoSession();
+                if (tokens.length < 2) {
+                    throw new IllegalArgumentException("Utilizzo: JOIN <sessione>");
+                }
+                Session joined = server.getSession(tokens[1]);
+                Symbol free = joined.freeHumanSymbol();
+                if (free == Symbol.EMPTY) {
+                    throw new IllegalStateException("La sessione " + tokens[1] + " è al completo");
+                }
+                joined.join(free, this);
+                session = joined;
+                symbol = free;
+            }
+            case "MOVE" -> {
+                requireSession();
+                if (tokens.length < 3) {
+                    throw new IllegalArgumentException("Utilizzo: MOVE <riga> <colonna>");
+                }
+                session.move(symbol, parseInt(tokens[1]), parseInt(tokens[2]));
+                session.playBotTurns(server.getComputePool(), server.getBotBudget());
+            }
+            case "NEWROUND" -> {
+                requireSession();
+                session.newRound();
+                session.playBotTurns(server.getComputePool(), server.getBotBudget());
+            }
+            case "BOARD" -> {
+                requireSession();
+                send(session.describeBoard());
+            }
+            case "METRICS" -> {
+                // Metriche del registro di default nel formato di Prometheus, precedute dal numero di righe
+                String[] lines = MetricsRegistry.getDefault().dump().split("\n");
+                send("METRICS " + (lines[0].isEmpty() ? 0 : lines.length));
+                for (String metric : lines) {
+                    if (!metric.isEmpty()) {
+                        send(metric);
+                    }
+                }
+            }
+            case "QUIT" -> {
+                return false;
+            }
+            default -> throw new IllegalArgumentException("Comando sconosciuto: " + tokens[0]);
+        }
+        return true;
+    }
+
+    /* Invia una riga al client; gli errori di scrittura vengono ignorati, la lettura se ne accorgerà chiudendo la connessione */
+    void send(String line) {
+        writeLock.lock();
+        try {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            // connessione già chiusa
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* Chiude il socket, interrompendo la lettura bloccante del virtual thread */
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // già chiuso
+        }
+    }
+
+    private void requireSession() {
+        if (session == null) {
+            throw new IllegalStateException("Nessuna sessione: usa NEW o JOIN");
+        }
+    }
+
+    private void requireNoSession() {
+        if (session != null) {
+            throw new IllegalStateException("Già nella sessione " + session.getId());
+        }
+    }
+
+    private static int parseInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero non valido: " + token);
+        }
+    }
+
+    private static Symbol parseSymbol(String token) {
+        return switch (token.toUpperCase()) {
+            case "X" -> Symbol.X;
+            case "O" -> Symbol.O;
+            default -> throw new IllegalArgumentException("Simbolo non valido: " + token);
+        };
+    }
+}
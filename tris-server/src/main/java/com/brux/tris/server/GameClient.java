@@ -0,0 +1,78 @@
+package com.brux.tris.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/* Client minimale del protocollo di GameServer, pensato per i test locali e per gli strumenti da riga di comando: invia comandi e legge
+*  i messaggi del server riga per riga. Non è thread-safe */
+public final class GameClient implements AutoCloseable {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+
+    /**
+     * Si collega al server in ascolto sulla porta passata dell'interfaccia di loopback e ne consuma il messaggio di benvenuto
+     * @param port Porta del server
+     * @param timeoutMillis Attesa massima di ogni lettura, 0 per attendere indefinitamente
+     * @throws IOException se la connessione non riesce
+     */
+    public GameClient(int port, int timeoutMillis) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        expect("HELLO");
+    }
+
+    /* Invia un comando al server */
+    public void send(String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Legge il prossimo messaggio del server
+     * @throws IOException se il server ha chiuso la connessione o la lettura va in timeout
+     */
+    public String readLine() throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Connessione chiusa dal server");
+        }
+        return line;
+    }
+
+    /**
+     * Legge i messaggi del server fino al primo che inizia con uno dei prefissi passati, scartando gli altri
+     * @return Il messaggio trovato
+     * @throws IllegalStateException se nel frattempo il server risponde con un errore
+     */
+    public String expect(String... prefixes) throws IOException {
+        while (true) {
+            String line = readLine();
+            for (String prefix : prefixes) {
+                if (line.startsWith(prefix)) {
+                    return line;
+                }
+            }
+            if (line.startsWith("ERROR")) {
+                throw new IllegalStateException(line);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
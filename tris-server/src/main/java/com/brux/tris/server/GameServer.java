@@ -0,0 +1,209 @@
+package com.brux.tris.server;
+
+import com.brux.tris.ai.*;
+import com.brux.tris.model.*;
+import com.brux.tris.service.StatisticsService;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server headless che espone il modello di gioco tramite un semplice protocollo testuale su socket TCP, una riga per comando. Ogni
+ * connessione è servita da un proprio virtual thread, dunque migliaia di sessioni contemporanee costano poche centinaia di byte di stack
+ * ciascuna; le mosse dei bot vengono invece calcolate su un pool di thread di piattaforma di dimensione fissa, così che i bot più costosi
+ * non possano sottrarre thread all'I/O delle altre sessioni. Comandi del client:
+ * <ul>
+ *  <li> NEW BOT &lt;EASY|INTERMEDIATE|EXTREME|MCTS&gt; &lt;X|O&gt; [size winLength]: nuova sessione contro un bot, giocando con il
+ *       simbolo scelto </li>
+ *  <li> NEW HUMAN [size winLength]: nuova sessione tra umani, il creatore gioca con X e attende l'avversario </li>
+ *  <li> in entrambi i NEW, size è al più MAX_SIZE e winLength (di default pari a size) al più size </li>
+ *  <li> JOIN &lt;id&gt;: entra come O nella sessione tra umani con l'identificativo passato </li>
+ *  <li> MOVE &lt;riga&gt; &lt;colonna&gt;, NEWROUND, BOARD, QUIT </li>
+ *  <li> METRICS: metriche dei turni (MetricsRegistry) nel formato di Prometheus, anche senza sessione </li>
+ * </ul>
+ * Messaggi del server: HELLO, SESSION &lt;id&gt; &lt;simbolo&gt; &lt;size&gt; &lt;winLength&gt;, BOARD &lt;size&gt; &lt;celle&gt; &lt;stato&gt;,
+ * TURN &lt;simbolo&gt;, MOVED &lt;simbolo&gt; &lt;riga&gt; &lt;colonna&gt;, END &lt;stato&gt;, SCORE &lt;x&gt; &lt;o&gt; &lt;pareggi&gt;,
+ * ROUND &lt;chi inizia&gt;, LEFT, METRICS &lt;righe&gt; seguito dalle righe, ERROR &lt;messaggio&gt;, BYE.
+ */
+public final class GameServer implements AutoCloseable {
+
+    /* Coda delle connessioni in attesa di accept: quella di default (50) fa scartare le connessioni di una raffica di client, che
+    *  riprovano solo dopo secondi */
+    private static final int BACKLOG = 1024;
+
+    /* Dimensione massima delle griglie richieste dai client: ogni dimensione distinta alloca tabelle Zobrist condivise e mai liberate, e
+    *  le board crescono con il quadrato della dimensione, dunque un limite evita che un solo client esaurisca la memoria del server */
+    static final int MAX_SIZE = 19;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService computePool;
+    private final ExecutorService connections;
+    private final SearchBudget botBudget;
+
+    /* Osservatore che registra i round di tutte le sessioni: nelle statistiche il server è un'unica sessione, così che il numero di chiavi
+    *  non cresca con le connessioni servite */
+    private final GameRecorder recorder;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Set<Connection> open = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Avvia il server in ascolto sull'interfaccia di loopback
+     * @param port Porta di ascolto, 0 per sceglierne una libera (si veda getPort)
+     * @param computeThreads Thread del pool su cui vengono calcolate le mosse dei bot
+     * @param botBudget Budget a disposizione dei bot per ciascuna mossa
+     * @param statistics Servizio in cui registrare l'esito di tutti i round giocati
+     * @throws IOException se non è possibile mettersi in ascolto sulla porta
+     * @throws IllegalArgumentException se computeThreads è minore di 1
+     */
+    public GameServer(int port, int computeThreads, SearchBudget botBudget, StatisticsService statistics) throws IOException {
+        if (computeThreads < 1) {
+            throw new IllegalArgumentException("computeThreads deve essere almeno 1");
+        }
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.computePool = Executors.newFixedThreadPool(computeThreads, r -> {
+            Thread thread = new Thread(r, "bot-compute");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connections = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("session-", 0).factory());
+        this.botBudget = botBudget;
+        this.recorder = statistics.recorder("server");
+
+        Thread.ofVirtual().name("server-acceptor").start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /* Numero di sessioni attive */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /* Chiude il socket di ascolto e tutte le connessioni, annullando le mosse dei bot in calcolo */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : open) {
+            connection.close();
+        }
+        connections.shutdownNow();
+        computePool.shutdownNow();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(this, socket);
+                open.add(connection);
+                connections.submit(() -> {
+                    try {
+                        connection.run();
+                    } finally {
+                        open.remove(connection);
+                    }
+                });
+            } catch (SocketException e) {
+                return;     // socket di ascolto chiuso da close()
+            } catch (IOException e) {
+                // errore sulla singola connessione in arrivo, si continua ad accettare le altre
+            }
+        }
+    }
+
+    /* Crea una sessione tra il client, che gioca con humanSymbol, e un nuovo bot del tipo passato */
+    Session createBotSession(String kind, Symbol humanSymbol, int size, int winLength) {
+        checkGrid(size, winLength);
+        Symbol botSymbol = (humanSymbol == Symbol.X) ? Symbol.O : Symbol.X;
+        Player bot = createBot(kind, botSymbol);
+        Player human = new HumanPlayer(humanSymbol);
+        return (humanSymbol == Symbol.X) ? register(human, bot, size, winLength) : register(bot, human, size, winLength);
+    }
+
+    /* Crea una sessione tra due umani, in attesa che il secondo entri tramite JOIN */
+    Session createHumanSession(int size, int winLength) {
+        checkGrid(size, winLength);
+        return register(new HumanPlayer(Symbol.X), new HumanPlayer(Symbol.O), size, winLength);
+    }
+
+    /**
+     * Sessione con l'identificativo passato
+     * @throws IllegalArgumentException se la sessione non esiste
+     */
+    Session getSession(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Sessione inesistente: " + id);
+        }
+        return session;
+    }
+
+    /* Scollega la connessione dalla sessione, rimuovendo quest'ultima se non vi è più nessuno */
+    void leave(Session session, Connection connection) {
+        session.leave(connection);
+        if (session.isAbandoned()) {
+            sessions.remove(session.getId());
+        }
+    }
+
+    ExecutorService getComputePool() {
+        return computePool;
+    }
+
+    SearchBudget getBotBudget() {
+        return botBudget;
+    }
+
+    /* Controllo della griglia richiesta dal client, prima di allocare qualsiasi cosa */
+    private static void checkGrid(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Griglia non valida: " + size + "x" + size + ", allineamento " + winLength
+                    + " (dimensione massima " + MAX_SIZE + ")");
+        }
+    }
+
+    private Session register(Player playerX, Player playerO, int size, int winLength) {
+        String id = Long.toString(nextId.getAndIncrement());
+        Session session = new Session(id, playerX, playerO, size, winLength, recorder);
+        sessions.put(id, session);
+        return session;
+    }
+
+    private static Player createBot(String kind, Symbol symbol) {
+        PlayerKind playerKind;
+        try {
+            playerKind = PlayerKind.valueOf(kind.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo di bot sconosciuto: " + kind);
+        }
+        return switch (playerKind) {
+            case EASY -> new EasyBot(symbol);
+            case INTERMEDIATE -> new IntermediateBot(symbol);
+            case EXTREME -> new ExtremeBot(symbol);
+            case MCTS -> new MctsBot(symbol);
+            default -> throw new IllegalArgumentException("Tipo di bot sconosciuto: " + kind);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.brux.tris.server;
+
+import com.brux.tris.model.SearchBudget;
+import com.brux.tris.service.MetricsRegistry;
+import com.brux.tris.service.StatisticsService;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/* Avvia il GameServer headless sull'interfaccia di loopback, finché non viene premuto invio. Argomenti opzionali: porta, thread di
+*  calcolo dei bot, millisecondi a disposizione dei bot per ogni mossa, file delle statistiche. Le metriche dei turni sono sempre abilitate e
+*  leggibili dai client con il comando METRICS */
+public class ServerRunner {
+    public static void main(String[] args) throws Exception {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 7777;
+        int computeThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long botMillis = (args.length > 2) ? Long.parseLong(args[2]) : 200;
+
+        MetricsRegistry.getDefault().setEnabled(true);     // letto dal comando METRICS
+        try (StatisticsService statistics = (args.length > 3)
+                     ? StatisticsService.open(Path.of(args[3]), Duration.ofSeconds(5))
+                     : new StatisticsService();
+             GameServer server = new GameServer(port, computeThreads, SearchBudget.ofTime(Duration.ofMillis(botMillis)), statistics)) {
+            System.out.println("Server in ascolto su localhost:" + server.getPort() + " (invio per terminare)");
+            new BufferedReader(new InputStreamReader(System.in)).readLine();
+            System.out.println("Sessioni attive alla chiusura: " + server.getSessionCount());
+        }
+    }
+}
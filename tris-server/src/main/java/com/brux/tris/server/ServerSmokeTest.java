@@ -0,0 +1,147 @@
+package com.brux.tris.server;
+
+import com.brux.tris.ai.PlayerKind;
+import com.brux.tris.model.SearchBudget;
+import com.brux.tris.model.Symbol;
+import com.brux.tris.service.StatisticsService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Prova end-to-end del GameServer con soli client locali: avvia il server su una porta libera e vi collega molti client contemporanei
+*  (un virtual thread ciascuno) che giocano mosse casuali contro tutti i tipi di bot, più alcune coppie di client che si affrontano tra
+*  loro. Verifica che il bot Estremo non perda mai e che alla fine non resti alcuna sessione aperta. Argomenti opzionali: client contro i
+*  bot, round per client */
+public class ServerSmokeTest {
+
+    private static final String[] BOTS = {"EASY", "INTERMEDIATE", "EXTREME", "MCTS"};
+
+    public static void main(String[] args) throws Exception {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        StatisticsService statistics = new StatisticsService();
+        AtomicLong extremeLosses = new AtomicLong();
+        long start = System.nanoTime();
+
+        try (GameServer server = new GameServer(0, cores, SearchBudget.ofTime(Duration.ofMillis(20)), statistics);
+             ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+
+            // Client contro i bot, alternando tipo di bot e simbolo
+            for (int i = 0; i < clients; i++) {
+                String bot = BOTS[i % BOTS.length];
+                Symbol mine = (i % 2 == 0) ? Symbol.X : Symbol.O;
+                long seed = i;
+                futures.add(pool.submit(() -> {
+                    try (GameClient client = new GameClient(server.getPort(), 30_000)) {
+                        client.send("NEW BOT " + bot + " " + mine);
+                        client.expect("SESSION");
+                        int won = play(client, mine, rounds, true, new SplittableRandom(seed));
+                        if (bot.equals("EXTREME")) {
+                            extremeLosses.addAndGet(won);
+                        }
+                        client.send("QUIT");
+                        client.expect("BYE");
+                    }
+                    return null;
+                }));
+            }
+
+            // Coppie di client umani: il primo crea la sessione, il secondo vi entra
+            for (int i = 0; i < Math.max(1, clients / 20); i++) {
+                long seed = 1_000_000L + i;
+                GameClient creator = new GameClient(server.getPort(), 30_000);
+                creator.send("NEW HUMAN");
+                String id = creator.expect("SESSION").split(" ")[1];
+                GameClient joiner = new GameClient(server.getPort(), 30_000);
+                joiner.send("JOIN " + id);
+                joiner.expect("SESSION");
+
+                futures.add(pool.submit(() -> {
+                    try (creator) {
+                        play(creator, Symbol.X, rounds, true, new SplittableRandom(seed));
+                        creator.send("QUIT");
+                        creator.expect("BYE");
+                    }
+                    return null;
+                }));
+                futures.add(pool.submit(() -> {
+                    try (joiner) {
+                        play(joiner, Symbol.O, rounds, false, new SplittableRandom(-seed));
+                        joiner.send("QUIT");
+                        joiner.expect("BYE");
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // Le sessioni vengono rimosse dai thread delle connessioni subito dopo il BYE
+            for (int i = 0; i < 100 && server.getSessionCount() > 0; i++) {
+                Thread.sleep(10);
+            }
+            System.out.println("Sessioni rimaste aperte: " + server.getSessionCount());
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = statistics.getSymbol(Symbol.X).getRounds();
+        System.out.printf("Round giocati: %d in %.2f s (%.0f round/s)%n", total, seconds, total / seconds);
+        for (PlayerKind kind : PlayerKind.values()) {
+            if (statistics.getPlayer(kind).getRounds() > 0) {
+                System.out.println(kind + ": " + statistics.getPlayer(kind));
+            }
+        }
+        System.out.println("Round vinti contro il bot Estremo: " + extremeLosses.get() + (extremeLosses.get() == 0 ? " (OK)" : " (ERRORE)"));
+    }
+
+    /**
+     * Gioca rounds round con mosse casuali tenendo traccia della griglia tramite i messaggi del server
+     * @param leader true se è questo client ad avviare i round successivi (nelle sessioni tra umani lo fa uno solo dei due)
+     * @return Numero di round vinti dal client
+     */
+    private static int play(GameClient client, Symbol mine, int rounds, boolean leader, SplittableRandom random) throws IOException {
+        boolean[] occupied = new boolean[9];
+        int won = 0;
+        int played = 0;
+
+        while (played < rounds) {
+            String[] message = client.expect("TURN", "MOVED", "END").split(" ");
+            switch (message[0]) {
+                case "MOVED" -> occupied[Integer.parseInt(message[2]) * 3 + Integer.parseInt(message[3])] = true;
+                case "TURN" -> {
+                    if (message[1].equals(mine.name())) {
+                        int cell;
+                        do {
+                            cell = random.nextInt(9);
+                        } while (occupied[cell]);
+                        client.send("MOVE " + cell / 3 + " " + cell % 3);
+                    }
+                }
+                case "END" -> {
+                    if (message[1].equals("WIN_" + mine)) {
+                        won++;
+                    }
+                    played++;
+                    occupied = new boolean[9];
+                    if (played < rounds && leader) {
+                        client.send("NEWROUND");
+                    }
+                }
+                default -> { }
+            }
+        }
+        return won;
+    }
+}
@@ -0,0 +1,227 @@
+package com.brux.tris.server;
+
+import com.brux.tris.model.*;
+import com.brux.tris.service.ScoreKeeper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* Sessione di gioco del server: una Game con i due giocatori e le connessioni dei client umani. Le operazioni sullo stato sono protette
+*  da un ReentrantLock (e non da synchronized, che nei virtual thread di Java 21 blocca anche il thread di piattaforma sottostante). Le
+*  mosse dei bot vengono calcolate sul pool di calcolo del server, su una copia della board e senza tenere il lock: il virtual thread della
+*  connessione si limita ad attenderne il risultato */
+final class Session {
+
+    private final String id;
+    private final Player playerX;
+    private final Player playerO;
+    private final Game game;
+    private final ScoreKeeper scoreKeeper = new ScoreKeeper();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* Connessioni dei giocatori umani, indicizzate dall'ordinale del simbolo (null per i bot e per gli umani non ancora entrati) */
+    private final Connection[] connections = new Connection[2];
+
+    private BoardStatus lastStatus = BoardStatus.ONGOING;
+
+    Session(String id, Player playerX, Player playerO, int size, int winLength, GameRecorder recorder) {
+        this.id = id;
+        this.playerX = playerX;
+        this.playerO = playerO;
+        Mode mode = (playerX instanceof HumanPlayer && playerO instanceof HumanPlayer) ? Mode.SCONTRO : Mode.SINGLE_PLAYER;
+        this.game = new Game(playerX, playerO, scoreKeeper, mode, size, winLength);
+        game.setRecorder(recorder);
+        game.startNewRound(playerX);     // Al primo round parte sempre X, come nella UI
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Associa la connessione al giocatore umano con il simbolo passato e le invia lo stato della sessione
+     * @throws IllegalStateException se il simbolo è di un bot o è già occupato da un'altra connessione
+     */
+    void join(Symbol symbol, Connection connection) {
+        lock.lock();
+        try {
+            if (!(player(symbol) instanceof HumanPlayer)) {
+                throw new IllegalStateException("Il simbolo " + symbol + " non è di un giocatore umano");
+            }
+            if (connections[symbol.ordinal()] != null) {
+                throw new IllegalStateException("Il simbolo " + symbol + " è già occupato");
+            }
+            connections[symbol.ordinal()] = connection;
+            connection.send("SESSION " + id + " " + symbol + " " + game.getBoard().getSize() + " " + game.getBoard().getWinLength());
+            connection.send(describeBoard());
+            if (lastStatus == BoardStatus.ONGOING) {
+                connection.send("TURN " + game.getCurrentPlayer().getSymbol());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Simbolo umano ancora libero, EMPTY se entrambi sono occupati o sono bot */
+    Symbol freeHumanSymbol() {
+        lock.lock();
+        try {
+            for (Symbol symbol : new Symbol[]{Symbol.X, Symbol.O}) {
+                if (player(symbol) instanceof HumanPlayer && connections[symbol.ordinal()] == null) {
+                    return symbol;
+                }
+            }
+            return Symbol.EMPTY;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Effettua la mossa del giocatore umano e comunica l'esito a tutti i client della sessione
+     * @throws IllegalStateException se non è il turno del giocatore, l'avversario non è ancora entrato o il round è concluso
+     * @throws IllegalArgumentException se la cella non è valida o è occupata
+     */
+    void move(Symbol symbol, int row, int col) {
+        lock.lock();
+        try {
+            if (lastStatus != BoardStatus.ONGOING) {
+                throw new IllegalStateException("Il round è concluso");
+            }
+            if (game.getMode() == Mode.SCONTRO && (connections[0] == null || connections[1] == null)) {
+                throw new IllegalStateException("In attesa dell'avversario");
+            }
+            if (game.getCurrentPlayer().getSymbol() != symbol) {
+                throw new IllegalStateException("Non è il tuo turno");
+            }
+            int size = game.getBoard().getSize();
+            if (row < 0 || row >= size || col < 0 || col >= size) {
+                throw new IllegalArgumentException("Cella fuori dalla griglia: " + row + " " + col);
+            }
+            apply(Move.of(row, col, symbol));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Avvia il round successivo, iniziato da chi ha perso il precedente (si veda Game.getNextStarter)
+     * @throws IllegalStateException se il round corrente non è ancora concluso
+     */
+    void newRound() {
+        lock.lock();
+        try {
+            if (lastStatus == BoardStatus.ONGOING) {
+                throw new IllegalStateException("Il round è ancora in corso");
+            }
+            Player starter = game.getNextStarter(lastStatus);
+            game.startNewRound(starter);
+            lastStatus = BoardStatus.ONGOING;
+            broadcast("ROUND " + starter.getSymbol());
+            broadcast("TURN " + starter.getSymbol());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fa giocare il bot finché è il suo turno. La mossa viene calcolata sul pool passato entro il budget, mentre il thread chiamante (il
+     * virtual thread della connessione) attende senza occupare alcun thread di piattaforma.
+     */
+    void playBotTurns(ExecutorService computePool, SearchBudget budget) throws InterruptedException {
+        while (true) {
+            Player bot;
+            CompletableFuture<Move> pending;
+            lock.lock();
+            try {
+                bot = game.getCurrentPlayer();
+                if (lastStatus != BoardStatus.ONGOING || bot instanceof HumanPlayer) {
+                    return;
+                }
+                pending = bot.makeMoveAsync(game.getBoard(), budget, computePool);   // lavora su una copia della board
+            } finally {
+                lock.unlock();
+            }
+
+            Move move;
+            try {
+                move = pending.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Errore del bot", e.getCause());
+            }
+
+            lock.lock();
+            try {
+                if (game.getCurrentPlayer() == bot && lastStatus == BoardStatus.ONGOING) {
+                    apply(move);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /* Scollega la connessione, avvisando l'eventuale avversario umano */
+    void leave(Connection connection) {
+        lock.lock();
+        try {
+            for (int i = 0; i < connections.length; i++) {
+                if (connections[i] == connection) {
+                    connections[i] = null;
+                }
+            }
+            broadcast("LEFT");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Predicato che verifica se nessun client è più collegato alla sessione */
+    boolean isAbandoned() {
+        lock.lock();
+        try {
+            return connections[0] == null && connections[1] == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Stato della board in una riga: BOARD <size> <celle riga per riga, '.' se libere> <stato> */
+    String describeBoard() {
+        Board board = game.getBoard();
+        StringBuilder sb = new StringBuilder("BOARD ").append(board.getSize()).append(' ');
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                Symbol symbol = board.getCell(row, col);
+                sb.append((symbol == Symbol.EMPTY) ? '.' : symbol.name().charAt(0));
+            }
+        }
+        return sb.append(' ').append(board.getStatus()).toString();
+    }
+
+    /* Applica la mossa e comunica a tutti l'esito: la mossa, poi il turno successivo oppure la fine del round con il punteggio */
+    private void apply(Move move) {
+        lastStatus = game.playMove(move);
+        broadcast("MOVED " + move.getSymbol() + " " + move.getRow() + " " + move.getCol());
+        if (lastStatus == BoardStatus.ONGOING) {
+            broadcast("TURN " + game.getCurrentPlayer().getSymbol());
+        } else {
+            broadcast("END " + lastStatus);
+            broadcast("SCORE " + scoreKeeper.getScore(Symbol.X) + " " + scoreKeeper.getScore(Symbol.O) + " " + scoreKeeper.getDraws());
+        }
+    }
+
+    private Player player(Symbol symbol) {
+        return (symbol == Symbol.X) ? playerX : playerO;
+    }
+
+    private void broadcast(String line) {
+        for (Connection connection : connections) {
+            if (connection != null) {
+                connection.send(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+module com.brux.tris.server {
+    requires com.brux.tris.core;
+
+    exports com.brux.tris.server;
+}